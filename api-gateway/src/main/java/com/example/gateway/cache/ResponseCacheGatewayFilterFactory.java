@@ -0,0 +1,214 @@
+package com.example.gateway.cache;
+
+import com.example.gateway.cache.ResponseCaches.CachedResponse;
+import com.example.gateway.cache.ResponseCaches.Key;
+import com.example.gateway.cache.ResponseCaches.Named;
+import com.example.gateway.support.ResponseCopies;
+import com.example.gateway.support.ResponseCopies.Copy;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ResponseCache} route filter: answers GETs from a {@link ResponseCaches} entry without the
+ * downstream hop, and drops the entries a POST/PUT/PATCH/DELETE on the same resource may have changed
+ * (before the write is forwarded and again once it completes). A miss that was in flight across either
+ * invalidation is passed on but not stored.
+ * <p>
+ * Only 200 responses are stored, and only when the downstream allows it: no {@code no-store},
+ * {@code private} or {@code no-cache}, no {@code Set-Cookie}, and no {@code Vary} beyond the route's
+ * vary headers. {@code max-age}/{@code s-maxage} shortens the route TTL. A hit answers
+ * {@code If-None-Match} with 304 from the cached ETag. Requests with {@code Authorization} or
+ * {@code Cache-Control: no-store} bypass the cache; {@code no-cache} skips the lookup but refreshes the entry.
+ * <p>
+ * Ordered ahead of the response writer (as {@code ModifyResponseBody} is), hence ahead of the route's
+ * rewrite filters: keys and invalidations use the path the client asked for.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private final ResponseCaches caches;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCaches caches) {
+        super(Config.class);
+        this.caches = caches;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("name", "ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> bypass = config.getBypass().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            Named cache = caches.named(cacheName(config, exchange));
+            HttpMethod method = request.getMethod();
+            String path = request.getPath().value();
+
+            if (method == HttpMethod.POST || method == HttpMethod.PUT
+                    || method == HttpMethod.PATCH || method == HttpMethod.DELETE) {
+                cache.invalidate(path);
+                return chain.filter(exchange).doFinally(signal -> cache.invalidate(path));
+            }
+            if (method != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            Set<String> requestDirectives = directives(request.getHeaders());
+            if (request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)
+                    || requestDirectives.contains("no-store")
+                    || bypass.stream().anyMatch(p -> p.matches(request.getPath().pathWithinApplication()))) {
+                cache.bypasses().increment();
+                return chain.filter(exchange);
+            }
+
+            Key key = new Key(path, request.getURI().getRawQuery(),
+                    config.getVaryHeaders().stream().map(h -> String.valueOf(request.getHeaders().get(h))).toList());
+            CachedResponse hit = requestDirectives.contains("no-cache") ? null : cache.cache().getIfPresent(key);
+            if (hit != null) {
+                cache.hits().increment();
+                return serve(exchange, hit);
+            }
+            cache.misses().increment();
+            CapturingResponse capturing = new CapturingResponse(exchange.getResponse(), cache, key, config,
+                    cache.generation().get());
+            return chain.filter(exchange.mutate().response(capturing).build());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private static String cacheName(Config config, ServerWebExchange exchange) {
+        if (config.getName() != null) return config.getName();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route == null ? "default" : route.getId();
+    }
+
+    private static Mono<Void> serve(ServerWebExchange exchange, CachedResponse hit) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.AGE, Long.toString(
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - hit.storedAtNanos())));
+        headers.set("X-Cache", "HIT");
+        String ifNoneMatch = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (hit.etag() != null && etagMatches(ifNoneMatch, hit.etag())) {
+            headers.putAll(hit.response().headers());
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        return hit.response().writeTo(response);
+    }
+
+    // weak comparison, as for GET
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        String tag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals("*") || c.equals(tag)) return true;
+        }
+        return false;
+    }
+
+    private static Set<String> directives(HttpHeaders headers) {
+        Set<String> directives = new HashSet<>();
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String d : value.split(",")) {
+                if (!d.isBlank()) directives.add(d.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return directives;
+    }
+
+    /** TTL allowed by the response headers, capped at {@code ttl}; zero when it must not be stored. */
+    private static long storableNanos(HttpStatusCode status, HttpHeaders headers, Config config) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return 0;
+        }
+        for (String vary : headers.getOrEmpty(HttpHeaders.VARY)) {
+            for (String h : vary.split(",")) {
+                String name = h.trim();
+                if (!name.isEmpty() && config.getVaryHeaders().stream().noneMatch(name::equalsIgnoreCase)) return 0;
+            }
+        }
+        long ttl = config.getTtl().toNanos();
+        for (String d : directives(headers)) {
+            if (d.equals("no-store") || d.equals("private") || d.equals("no-cache")) return 0;
+            if (d.startsWith("max-age=") || d.startsWith("s-maxage=")) {
+                try {
+                    ttl = Math.min(ttl, TimeUnit.SECONDS.toNanos(Long.parseLong(d.substring(d.indexOf('=') + 1))));
+                } catch (NumberFormatException ignored) {
+                    return 0;
+                }
+            }
+        }
+        return Math.max(ttl, 0);
+    }
+
+    /** Tees the downstream body into a cache entry while it is written to the client. */
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+        private final Named cache;
+        private final Key key;
+        private final Config config;
+        private final long generation;
+
+        CapturingResponse(ServerHttpResponse delegate, Named cache, Key key, Config config, long generation) {
+            super(delegate);
+            this.cache = cache;
+            this.key = key;
+            this.config = config;
+            this.generation = generation;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long ttl = storableNanos(getStatusCode(), getHeaders(), config);
+            if (ttl == 0) {
+                return super.writeWith(body);
+            }
+            return super.writeWith(ResponseCopies.tee(body, caches.maxBodyBytes(), bytes -> {
+                if (bytes != null) {
+                    cache.putIfCurrent(key, new CachedResponse(Copy.of(getDelegate(), bytes),
+                            getHeaders().getETag(), System.nanoTime(), ttl), generation);
+                }
+            }));
+        }
+    }
+
+    @Data
+    public static class Config {
+        /** Cache shared by every route naming it; defaults to the route id. */
+        private String name;
+        private Duration ttl = Duration.ofSeconds(30);
+        /** Request headers that are part of the key; a downstream {@code Vary} outside them disables caching. */
+        private List<String> varyHeaders = new ArrayList<>(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        /** Path patterns (as the client sent them) that are never cached. */
+        private List<String> bypass = new ArrayList<>();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.gateway.cache;
+
+import com.example.gateway.support.ResponseCopies.Copy;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Named in-memory caches of GET responses, shared by the routes that serve one resource
+ * (e.g. {@code department-root} and {@code department}). Each cache holds at most
+ * {@code gateway.response-cache.max-entries}; every entry expires on its own TTL.
+ * <p>
+ * Invalidation is local to this gateway instance: writes that reach a service directly, or through
+ * another gateway instance, are only bounded by the TTL. Each cache carries a generation that every
+ * invalidation bumps; a miss stores its response only if no invalidation happened while it was in flight,
+ * so a GET answered before a write cannot land in the cache after the write dropped its entry.
+ * <p>
+ * Metrics: {@code gateway.response-cache.requests{cache,result=hit|miss|bypass}},
+ * {@code gateway.response-cache.invalidations{cache}} and {@code gateway.response-cache.size{cache}}.
+ */
+@Component
+public class ResponseCaches {
+
+    private final ConcurrentMap<String, Named> caches = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long maxEntries;
+    private final int maxBodyBytes;
+
+    public ResponseCaches(MeterRegistry meterRegistry,
+                          @Value("${gateway.response-cache.max-entries:10000}") long maxEntries,
+                          @Value("${gateway.response-cache.max-body-size:256KB}") DataSize maxBodySize) {
+        this.meterRegistry = meterRegistry;
+        this.maxEntries = maxEntries;
+        this.maxBodyBytes = (int) maxBodySize.toBytes();
+    }
+
+    /** Larger bodies are passed through without being cached. */
+    int maxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    Named named(String name) {
+        return caches.computeIfAbsent(name, this::create);
+    }
+
+    private Named create(String name) {
+        Cache<Key, CachedResponse> cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<Key, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(Key key, CachedResponse value, long currentTime) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        Gauge.builder("gateway.response-cache.size", cache, Cache::estimatedSize).tag("cache", name).register(meterRegistry);
+        return new Named(name, cache,
+                requests(name, "hit"), requests(name, "miss"), requests(name, "bypass"),
+                Counter.builder("gateway.response-cache.invalidations").tag("cache", name).register(meterRegistry),
+                new AtomicLong());
+    }
+
+    private Counter requests(String name, String result) {
+        return Counter.builder("gateway.response-cache.requests")
+                .tag("cache", name).tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether a write to {@code writtenPath} may have changed the response cached for {@code cachedPath}.
+     * Only a different id under the same collection is known to be unaffected: a write to
+     * {@code /departments/5} keeps {@code /departments/7}, but drops {@code /departments/5} and its
+     * sub-resources, every list, and lookups that are not by id ({@code /departments/by-code/ENG}).
+     */
+    static boolean affectedBy(String cachedPath, String writtenPath) {
+        String[] cached = segments(cachedPath);
+        String[] written = segments(writtenPath);
+        if (cached.length == 0 || written.length == 0) return true;
+        if (!cached[0].equals(written[0])) return false;
+        boolean otherId = cached.length > 1 && written.length > 1
+                && isId(cached[1]) && isId(written[1]) && !cached[1].equals(written[1]);
+        return !otherId;
+    }
+
+    private static String[] segments(String path) {
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+    }
+
+    private static boolean isId(String segment) {
+        return !segment.isEmpty() && segment.chars().allMatch(Character::isDigit);
+    }
+
+    /** Method is always GET; {@code vary} holds the values of the route's vary headers, in order. */
+    record Key(String path, String query, List<String> vary) {}
+
+    record CachedResponse(Copy response, String etag, long storedAtNanos, long ttlNanos) {}
+
+    record Named(String name, Cache<Key, CachedResponse> cache,
+                 Counter hits, Counter misses, Counter bypasses, Counter invalidations, AtomicLong generation) {
+
+        void invalidate(String writtenPath) {
+            generation.incrementAndGet();
+            cache.asMap().keySet().removeIf(key -> affectedBy(key.path(), writtenPath));
+            invalidations.increment();
+        }
+
+        /** Stores a response fetched since {@code seenGeneration}, unless an invalidation has run meanwhile. */
+        void putIfCurrent(Key key, CachedResponse response, long seenGeneration) {
+            if (generation.get() == seenGeneration) {
+                cache.put(key, response);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.gateway.coalesce;
+
+import com.example.gateway.support.ResponseCopies;
+import com.example.gateway.support.ResponseCopies.Copy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@code Coalesce} route filter (single-flight): while a GET is in flight, identical GETs (same path, query
+ * and vary headers) do not go upstream but wait for it and get a copy of its response, whatever the status.
+ * <p>
+ * A waiter gives up after {@code max-wait} and goes upstream itself; so does every waiter when the shared
+ * call fails, is cancelled by its client, or returns a body over {@code gateway.coalescing.max-body-size}.
+ * Requests with {@code Authorization}, and conditional or range requests ({@code If-None-Match},
+ * {@code If-Modified-Since}, {@code If-Match}, {@code If-Unmodified-Since}, {@code If-Range}, {@code Range}),
+ * are never merged: their answer (304, 206, 412) depends on headers the key leaves out, so it is neither
+ * shared with nor taken from other requests; neither are paths listed in {@code bypass}. Nothing is kept
+ * once the call completes; combine with {@code ResponseCache} for that, listed before this filter.
+ * <p>
+ * The filter runs at its position in the route, so a {@code RequestRateLimiter} listed before it charges
+ * waiters too. The leader's response is copied by {@link CoalesceResponseFilter}, which sits ahead of the
+ * response writer and releases the key once the response is written.
+ * <p>
+ * Metrics: {@code gateway.coalescing.requests{name,result=leader|joined|timeout|bypass}}; the coalescing
+ * ratio is {@code joined / (leader + joined + timeout)}.
+ */
+@Component
+public class CoalesceGatewayFilterFactory extends AbstractGatewayFilterFactory<CoalesceGatewayFilterFactory.Config> {
+
+    // headers that make the response depend on what the client already holds
+    private static final List<String> CONDITIONAL = List.of(HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE,
+            HttpHeaders.IF_MATCH, HttpHeaders.IF_UNMODIFIED_SINCE, HttpHeaders.IF_RANGE, HttpHeaders.RANGE);
+
+    // exchange attribute holding the Leader, when the request leads a coalesced call
+    static final String LEADER_ATTR = CoalesceGatewayFilterFactory.class.getName() + ".leader";
+
+    // emitted when the shared call produced nothing that can be replayed
+    private static final Copy NOT_SHARED = new Copy(null, HttpHeaders.EMPTY, new byte[0]);
+
+    private final ConcurrentMap<Key, Sinks.One<Copy>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int maxBodyBytes;
+
+    public CoalesceGatewayFilterFactory(MeterRegistry meterRegistry,
+                                        @Value("${gateway.coalescing.max-body-size:256KB}") DataSize maxBodySize) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.maxBodyBytes = (int) maxBodySize.toBytes();
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("name", "maxWait");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> bypass = config.getBypass().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String name = name(config, exchange);
+            if (request.getMethod() != HttpMethod.GET || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)
+                    || CONDITIONAL.stream().anyMatch(request.getHeaders()::containsKey)
+                    || bypass.stream().anyMatch(p -> p.matches(request.getPath().pathWithinApplication()))) {
+                if (request.getMethod() == HttpMethod.GET) count(name, "bypass");
+                return chain.filter(exchange);
+            }
+
+            Key key = new Key(name, request.getPath().value(), request.getURI().getRawQuery(),
+                    config.getVaryHeaders().stream().map(h -> String.valueOf(request.getHeaders().get(h))).toList());
+            Sinks.One<Copy> mine = Sinks.one();
+            Sinks.One<Copy> shared = inFlight.putIfAbsent(key, mine);
+
+            if (shared != null) {
+                return shared.asMono()
+                        .timeout(config.getMaxWait())
+                        .flatMap(copy -> {
+                            if (copy == NOT_SHARED) return chain.filter(exchange);
+                            count(name, "joined");
+                            exchange.getResponse().getHeaders().set("X-Coalesced", "true");
+                            return copy.writeTo(exchange.getResponse());
+                        })
+                        .onErrorResume(TimeoutException.class, ex -> {
+                            count(name, "timeout");
+                            return chain.filter(exchange);
+                        });
+            }
+
+            count(name, "leader");
+            exchange.getAttributes().put(LEADER_ATTR, new Leader(key, mine));
+            return chain.filter(exchange);
+        };
+    }
+
+    private void count(String name, String result) {
+        Counter.builder("gateway.coalescing.requests")
+                .tag("name", name).tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String name(Config config, ServerWebExchange exchange) {
+        if (config.getName() != null) return config.getName();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route == null ? "default" : route.getId();
+    }
+
+    /** The name is part of the key, so routes merge only with routes sharing their name. */
+    private record Key(String name, String path, String query, List<String> vary) {}
+
+    /** The in-flight call of a leader, left on its exchange for {@link CoalesceResponseFilter}. */
+    final class Leader {
+        private final Key key;
+        private final Sinks.One<Copy> sink;
+
+        private Leader(Key key, Sinks.One<Copy> sink) {
+            this.key = key;
+            this.sink = sink;
+        }
+
+        /** Passes the leader's body through to its client and hands a copy to the waiters once complete. */
+        Flux<? extends DataBuffer> share(Publisher<? extends DataBuffer> body, ServerHttpResponse response) {
+            return ResponseCopies.tee(body, maxBodyBytes,
+                    bytes -> sink.tryEmitValue(bytes == null ? NOT_SHARED : Copy.of(response, bytes)));
+        }
+
+        /** Called when the leader's exchange ends; waiters still waiting go upstream themselves. */
+        void release() {
+            inFlight.remove(key, sink);
+            sink.tryEmitValue(NOT_SHARED);   // no-op once the response was shared
+        }
+    }
+
+    @Data
+    public static class Config {
+        /** Routes with the same name merge identical requests with each other; defaults to the route id. */
+        private String name;
+        /** How long a request waits for the in-flight one before going upstream itself. */
+        private Duration maxWait = Duration.ofSeconds(2);
+        /** Request headers that must match for two requests to be merged. */
+        private List<String> varyHeaders = new ArrayList<>(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        /** Path patterns (e.g. {@code /employees/export}) never merged: their responses are too large to share. */
+        private List<String> bypass = new ArrayList<>();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.gateway.coalesce;
+
+import com.example.gateway.coalesce.CoalesceGatewayFilterFactory.Leader;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Response side of {@code Coalesce}. The route filter runs at its position in the route, after the response
+ * writer has taken hold of the response, so it cannot wrap what the writer writes to. This filter is ordered
+ * ahead of the writer (as {@code ModifyResponseBody} is): for a GET that turned out to lead a coalesced call,
+ * it copies the body for the waiters and releases the key once the response is written.
+ */
+@Component
+class CoalesceResponseFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (exchange.getRequest().getMethod() != HttpMethod.GET) return chain.filter(exchange);
+        return chain.filter(exchange.mutate().response(new SharingResponse(exchange)).build())
+                .doFinally(signal -> {
+                    Leader leader = exchange.getAttribute(CoalesceGatewayFilterFactory.LEADER_ATTR);
+                    if (leader != null) leader.release();
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    /** Tees the body when the route's Coalesce filter has made this exchange a leader; passes it through otherwise. */
+    private static final class SharingResponse extends ServerHttpResponseDecorator {
+        private final ServerWebExchange exchange;
+
+        SharingResponse(ServerWebExchange exchange) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            Leader leader = exchange.getAttribute(CoalesceGatewayFilterFactory.LEADER_ATTR);
+            return super.writeWith(leader == null ? body : leader.share(body, getDelegate()));
+        }
+    }
+}
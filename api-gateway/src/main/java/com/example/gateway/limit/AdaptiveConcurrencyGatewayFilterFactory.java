@@ -0,0 +1,122 @@
+package com.example.gateway.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@code AdaptiveConcurrency} route filter: caps the requests in flight to the route's downstream at an
+ * {@link AimdLimit} learned from observed latency, and sheds the excess at once with 503 and
+ * {@code Retry-After} instead of letting it queue into the gateway response timeout.
+ * <p>
+ * Routes with the same {@code name} share one limit (e.g. every route to one service); the default is
+ * the route id. The slot is held, and the RTT sampled, until the route's filter chain completes. That happens
+ * once the downstream response headers arrive: the response writer streams the body to the client only
+ * afterwards. So a long download does not read as congestion, but a request whose answer only starts once
+ * its work is done does (a streamed upload, a bulk write). Such endpoints are listed in {@code bypass}, or
+ * left without this filter: they neither take a slot nor feed the limit. Cache hits and coalesced waiters
+ * are answered before this filter runs and never take a slot.
+ * <p>
+ * Metrics: {@code gateway.concurrency.limit{name}}, {@code gateway.concurrency.in-flight{name}} and
+ * {@code gateway.concurrency.rejected{name}}.
+ */
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    private final ConcurrentMap<String, Limiter> limiters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public AdaptiveConcurrencyGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("name");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String retryAfter = Long.toString(Math.max(1, config.getRetryAfter().toSeconds()));
+        List<PathPattern> bypass = config.getBypass().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        return (exchange, chain) -> {
+            if (bypass.stream().anyMatch(p -> p.matches(exchange.getRequest().getPath().pathWithinApplication()))) {
+                return chain.filter(exchange);
+            }
+            Limiter limiter = limiters.computeIfAbsent(name(config, exchange), name -> create(name, config));
+            int inFlight = limiter.limit().tryAcquire();
+            if (inFlight < 0) {
+                limiter.rejected().increment();
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+                return response.setComplete();
+            }
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                limiter.limit().release();
+                if (signal == SignalType.CANCEL) return;   // the client left; says nothing about the downstream
+                limiter.limit().onSample(start, System.nanoTime() - start, inFlight,
+                        signal == SignalType.ON_ERROR || overloaded(exchange.getResponse().getStatusCode()));
+            });
+        };
+    }
+
+    private static boolean overloaded(HttpStatusCode status) {
+        return status != null && (status.value() == 502 || status.value() == 503 || status.value() == 504);
+    }
+
+    private Limiter create(String name, Config config) {
+        AimdLimit limit = new AimdLimit(config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(),
+                config.getLatencyThreshold().toNanos(), config.getBackoff());
+        Gauge.builder("gateway.concurrency.limit", limit, AimdLimit::limit).tag("name", name).register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", limit, AimdLimit::inFlight).tag("name", name).register(meterRegistry);
+        return new Limiter(limit, Counter.builder("gateway.concurrency.rejected").tag("name", name).register(meterRegistry));
+    }
+
+    private static String name(Config config, ServerWebExchange exchange) {
+        if (config.getName() != null) return config.getName();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route == null ? "default" : route.getId();
+    }
+
+    private record Limiter(AimdLimit limit, Counter rejected) {}
+
+    /** The settings of the first route to use a name apply to that shared limit. */
+    @Data
+    public static class Config {
+        private String name;
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+        /** Answers slower than this are a congestion signal; keep it well under the gateway response timeout. */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+        /** Factor applied to the limit on congestion. */
+        private double backoff = 0.9;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        /** Path patterns (as the client sent them) that are passed through without a slot or an RTT sample. */
+        private List<String> bypass = new ArrayList<>();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.gateway.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit driven by latency, AIMD style: every request answered within {@code latencyThreshold}
+ * adds 1/limit (about +1 per round trip of the whole limit), while a slower answer or a dropped request
+ * (timeout, 502/503/504) cuts the limit by {@code backoff}, at most once per round trip so one burst of
+ * slow answers counts as a single congestion signal. The limit only grows while at least half of it is in
+ * use, so an idle route does not inflate it.
+ */
+final class AimdLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long thresholdNanos;
+    private final double backoff;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private long lastDecrease;   // guarded by this
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, long thresholdNanos, double backoff) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Need 1 <= min-limit <= max-limit");
+        }
+        if (backoff <= 0 || backoff >= 1) {
+            throw new IllegalArgumentException("backoff must be in (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.thresholdNanos = thresholdNanos;
+        this.backoff = backoff;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecrease = System.nanoTime();
+    }
+
+    /** Takes a slot and returns the requests in flight including this one, or -1 when at the limit. */
+    int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) return -1;
+            if (inFlight.compareAndSet(current, current + 1)) return current + 1;
+        }
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /** Feeds one completed request: its RTT, the requests in flight when it started, and whether it was dropped. */
+    synchronized void onSample(long startNanos, long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (dropped || rttNanos > thresholdNanos) {
+            // requests started before the last cut saw the old limit; they say nothing new
+            if (startNanos - lastDecrease > 0) {
+                limit = Math.max(minLimit, limit * backoff);
+                lastDecrease = System.nanoTime();
+            }
+        } else if (inFlightAtStart >= limit / 2) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
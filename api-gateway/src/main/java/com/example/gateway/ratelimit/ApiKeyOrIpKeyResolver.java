@@ -0,0 +1,33 @@
+package com.example.gateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Rate-limit key: the {@code X-API-Key} header when present, otherwise the client IP.
+ * The API key is not authenticated here, so it separates well-behaved clients (e.g. batch jobs) rather
+ * than stopping a hostile one, which can rotate keys; the IP fallback is the remote address as seen by
+ * the gateway, so behind a proxy it needs forwarded-header handling enabled.
+ */
+@Component("apiKeyOrIpKeyResolver")
+public class ApiKeyOrIpKeyResolver implements KeyResolver {
+
+    static final String API_KEY_HEADER = "X-API-Key";
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        String apiKey = exchange.getRequest().getHeaders().getFirst(API_KEY_HEADER);
+        if (apiKey != null && !apiKey.isBlank()) {
+            return Mono.just("key:" + apiKey.trim());
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        if (remote == null || remote.getAddress() == null) {
+            return Mono.empty();   // no key: RequestRateLimiter denies (deny-empty-key)
+        }
+        return Mono.just("ip:" + remote.getAddress().getHostAddress());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.gateway.ratelimit;
+
+import com.example.gateway.ratelimit.TokenBuckets.Decision;
+import com.example.gateway.ratelimit.TokenBuckets.Limit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code RequestRateLimiter} backend without Redis: token buckets per route and key, held in this
+ * gateway's memory by {@link TokenBuckets}. Configured per route like {@code RedisRateLimiter}, under
+ * {@code local-rate-limiter.*} (replenish-rate per second, burst-capacity, requested-tokens).
+ * <p>
+ * Limits are per gateway instance: with N instances behind a balancer a client gets up to N times the rate.
+ * Answers carry the {@code X-RateLimit-*} headers of the Redis limiter, plus {@code Retry-After} when denied.
+ * <p>
+ * Metrics: {@code gateway.rate-limit.denied{route}} and {@code gateway.rate-limit.buckets}.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+    private final TokenBuckets buckets;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, RouteLimit> routes = new ConcurrentHashMap<>();
+
+    public LocalRateLimiter(ConfigurationService configurationService, TokenBuckets buckets,
+                            MeterRegistry meterRegistry) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.buckets = buckets;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.rate-limit.buckets", buckets, TokenBuckets::size).register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        RouteLimit route = routes.get(routeId);
+        if (route == null || route.config() != getConfig().get(routeId)) {   // first use, or rebound on refresh
+            route = routeLimit(routeId);
+            routes.put(routeId, route);
+        }
+        Config config = route.config();
+        Decision decision = buckets.tryConsume(routeId + ':' + id, route.limit(), config.getRequestedTokens());
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(REMAINING_HEADER, Long.toString(decision.remaining()));
+        headers.put(REPLENISH_RATE_HEADER, Double.toString(config.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, Long.toString(config.getBurstCapacity()));
+        headers.put(REQUESTED_TOKENS_HEADER, Integer.toString(config.getRequestedTokens()));
+        if (!decision.allowed()) {
+            route.denied().increment();
+            long seconds = TimeUnit.NANOSECONDS.toSeconds(decision.retryAfterNanos() + 999_999_999L);
+            headers.put(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, seconds)));
+        }
+        return Mono.just(new Response(decision.allowed(), headers));
+    }
+
+    private RouteLimit routeLimit(String routeId) {
+        Config config = getConfig().get(routeId);
+        if (config == null) {
+            throw new IllegalArgumentException("No local-rate-limiter configuration for route " + routeId);
+        }
+        return new RouteLimit(config, Limit.of(config.getReplenishRate(), config.getBurstCapacity()),
+                Counter.builder("gateway.rate-limit.denied").tag("route", routeId).register(meterRegistry));
+    }
+
+    private record RouteLimit(Config config, Limit limit, Counter denied) {}
+
+    @Data
+    @Validated
+    public static class Config {
+        /** Tokens added per second. */
+        private double replenishRate = 1;
+        /** Largest number of tokens a bucket holds, i.e. the burst allowed after idling. */
+        @Min(1)
+        private long burstCapacity = 1;
+        /** Tokens one request costs. */
+        @Min(1)
+        private int requestedTokens = 1;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets, one per key, kept as a single {@link AtomicLong} each (GCRA: the theoretical
+ * arrival time of the next token). Taking tokens is one CAS, retried only when another request for the
+ * same key won the race; there are no locks on the request path.
+ * <p>
+ * Memory is bounded: a bucket idle for {@code gateway.rate-limit.idle-timeout} is dropped, and at most
+ * {@code gateway.rate-limit.max-keys} are kept. A dropped bucket comes back full, which is exact as long
+ * as the idle timeout is longer than the time to refill any route's burst.
+ */
+@Component
+public class TokenBuckets {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBuckets(@Value("${gateway.rate-limit.max-keys:100000}") long maxKeys,
+                        @Value("${gateway.rate-limit.idle-timeout:10m}") Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    /** Replenish rate and burst capacity in GCRA terms: nanos per token, and nanos of backlog allowed. */
+    public record Limit(long intervalNanos, long burstNanos) {
+
+        public static Limit of(double replenishRate, long burstCapacity) {
+            if (replenishRate <= 0 || burstCapacity < 1) {
+                throw new IllegalArgumentException("replenish-rate must be > 0 and burst-capacity >= 1");
+            }
+            long interval = Math.max(1, (long) (1_000_000_000L / replenishRate));
+            return new Limit(interval, interval * burstCapacity);
+        }
+    }
+
+    /** Outcome of one attempt: tokens left in the bucket, and when a denied request could succeed. */
+    public record Decision(boolean allowed, long remaining, long retryAfterNanos) {}
+
+    public Decision tryConsume(String key, Limit limit, int tokens) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(System.nanoTime()));
+        long cost = limit.intervalNanos() * tokens;
+        while (true) {
+            long now = System.nanoTime();
+            long tat = bucket.get();
+            long start = tat - now > 0 ? tat : now;      // a full bucket does not bank unused time
+            long backlog = start + cost - now;
+            if (backlog > limit.burstNanos()) {
+                return new Decision(false, (limit.burstNanos() - (start - now)) / limit.intervalNanos(),
+                        backlog - limit.burstNanos());
+            }
+            if (bucket.compareAndSet(tat, start + cost)) {
+                return new Decision(true, (limit.burstNanos() - backlog) / limit.intervalNanos(), 0);
+            }
+        }
+    }
+
+    long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.gateway.support;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/** Copies of downstream responses that can be written again to other clients (response cache, coalescing). */
+public final class ResponseCopies {
+
+    // hop-by-hop or per-exchange; never replayed
+    private static final Set<String> NOT_REPLAYED = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(Locale.ROOT), "keep-alive",
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT), HttpHeaders.DATE.toLowerCase(Locale.ROOT));
+
+    private ResponseCopies() {}
+
+    /** A response as replayed: status, end-to-end headers and the whole body. */
+    public record Copy(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+        public static Copy of(ServerHttpResponse response, byte[] body) {
+            HttpHeaders headers = new HttpHeaders();
+            response.getHeaders().forEach((name, values) -> {
+                if (!NOT_REPLAYED.contains(name.toLowerCase(Locale.ROOT))) headers.addAll(name, values);
+            });
+            headers.setContentLength(body.length);
+            return new Copy(response.getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers), body);
+        }
+
+        /** Writes this copy as the response; extra headers are set by the caller beforehand. */
+        public Mono<Void> writeTo(ServerHttpResponse response) {
+            response.getHeaders().putAll(headers);
+            response.setStatusCode(status);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }
+    }
+
+    /**
+     * Passes {@code body} through unchanged while copying it. When it completes, {@code onComplete}
+     * receives the bytes, or null if they exceeded {@code limit} (the copy is dropped, not the response).
+     * Nothing is delivered when the body fails or the client goes away.
+     */
+    public static Flux<? extends DataBuffer> tee(Publisher<? extends DataBuffer> body, int limit,
+                                                 Consumer<byte[]> onComplete) {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        boolean[] oversized = { false };
+        return Flux.from(body)
+                .doOnNext(buffer -> {
+                    int n = buffer.readableByteCount();
+                    if (oversized[0] || copy.size() + n > limit) {
+                        oversized[0] = true;
+                        return;
+                    }
+                    byte[] bytes = new byte[n];
+                    buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), 0, n);
+                    copy.writeBytes(bytes);
+                })
+                .doOnComplete(() -> onComplete.accept(oversized[0] ? null : copy.toByteArray()));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.gateway.view;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Employee card composed at the gateway: the employee from employee-service (asked not to enrich, so no
+ * blocking call into department-service happens there) and its department from department-service, each
+ * over {@code lb://} with its own timeout.
+ * <p>
+ * The department id comes from the employee, so by default the legs run one after the other; a client
+ * that already knows it passes {@code ?departmentId=} and both legs run in parallel (a stale hint costs
+ * one extra department call). The employee leg decides the answer: 404 passes through, a timeout is 504
+ * and any other failure 502. The department leg degrades: on timeout or error the view is the employee
+ * with {@code department: null} and {@code partial: true}, as employee-service itself answers.
+ * <p>
+ * Metrics: {@code gateway.views.legs{leg,result}}, result being ok, not-found, timeout or error.
+ */
+@RestController
+@RequestMapping("/views")
+public class EmployeeViewController {
+
+    private final WebClient client;
+    private final Duration employeeTimeout;
+    private final Duration departmentTimeout;
+    private final MeterRegistry meterRegistry;
+
+    public EmployeeViewController(WebClient.Builder builder, LoadBalancedExchangeFilterFunction loadBalancer,
+                                  @Value("${gateway.views.employee-timeout:800ms}") Duration employeeTimeout,
+                                  @Value("${gateway.views.department-timeout:300ms}") Duration departmentTimeout,
+                                  MeterRegistry meterRegistry) {
+        this.client = builder.clone().filter(loadBalancer).build();
+        this.employeeTimeout = employeeTimeout;
+        this.departmentTimeout = departmentTimeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // GET /views/employees/{id}[?departmentId=...] — employee with its department, partial if the latter is late
+    @Operation(summary = "Employee with its department, composed from both services")
+    @GetMapping("/employees/{id}")
+    public Mono<ObjectNode> employee(@PathVariable Long id,
+                                     @Parameter(description = "The employee's department, when known: fetched in parallel")
+                                     @RequestParam(required = false) Long departmentId) {
+        if (departmentId == null) {
+            return employee(id).flatMap(e -> department(departmentIdOf(e)).map(d -> merge(e, d)));
+        }
+        return Mono.zip(employee(id), department(departmentId)).flatMap(t -> {
+            Long actual = departmentIdOf(t.getT1());
+            return Objects.equals(actual, departmentId)
+                    ? Mono.just(merge(t.getT1(), t.getT2()))
+                    : department(actual).map(d -> merge(t.getT1(), d));
+        });
+    }
+
+    private Mono<ObjectNode> employee(Long id) {
+        return client.get()
+                .uri("lb://EMPLOYEE-SERVICE/api/v1/employees/{id}?enrich=false", id)
+                .retrieve()
+                .bodyToMono(ObjectNode.class)
+                .timeout(employeeTimeout)
+                .doOnNext(e -> count("employee", "ok"))
+                .onErrorMap(ex -> {
+                    String result = result(ex);
+                    count("employee", result);
+                    return switch (result) {
+                        case "not-found" -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found");
+                        case "timeout" -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                                "employee-service did not answer within " + employeeTimeout.toMillis() + "ms");
+                        default -> new ResponseStatusException(HttpStatus.BAD_GATEWAY, "employee-service unavailable");
+                    };
+                });
+    }
+
+    // never fails: a missing department resolves to null, a late or failed one to unresolved
+    private Mono<Department> department(Long id) {
+        if (id == null) {
+            return Mono.just(new Department(NullNode.getInstance(), true));
+        }
+        return client.get()
+                .uri("lb://DEPARTMENT-SERVICE/api/v1/departments/{id}", id)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(departmentTimeout)
+                .map(d -> {
+                    count("department", "ok");
+                    return new Department(d, true);
+                })
+                .onErrorResume(ex -> {
+                    String result = result(ex);
+                    count("department", result);
+                    return Mono.just(new Department(NullNode.getInstance(), result.equals("not-found")));
+                });
+    }
+
+    private static ObjectNode merge(ObjectNode employee, Department department) {
+        employee.set("department", department.body());
+        if (!department.resolved()) {
+            employee.put("partial", true);
+        }
+        return employee;
+    }
+
+    private static Long departmentIdOf(ObjectNode employee) {
+        JsonNode id = employee.get("departmentId");
+        return id == null || id.isNull() ? null : id.asLong();
+    }
+
+    private static String result(Throwable ex) {
+        if (ex instanceof WebClientResponseException.NotFound) return "not-found";
+        if (ex instanceof TimeoutException) return "timeout";
+        return "error";
+    }
+
+    private void count(String leg, String result) {
+        meterRegistry.counter("gateway.views.legs", "leg", leg, "result", result).increment();
+    }
+
+    private record Department(JsonNode body, boolean resolved) {}
+}
@@ -0,0 +1,98 @@
+package com.example.benchmarks;
+
+import com.example.employee.EmployeeServiceApplication;
+import com.example.employee.domain.Employee;
+import com.example.employee.repo.EmployeeRepository;
+import com.example.employee.repo.EmployeeView;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity reads (what the service did before) against constructor projections, for one list page
+ * and one lookup by id. Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}: that is the
+ * number of bytes allocated per request on the read path.
+ * <p>
+ * Needs a PostgreSQL reachable at {@code -Dbench.jdbc.url} (see {@link ServiceContexts});
+ * Flyway migrates it and missing rows are seeded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeReadPathBenchmark {
+
+    private static final int SEED_ROWS = 1000;
+
+    @Param({"20", "100"})
+    int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository repository;
+    private TransactionTemplate readOnlyTx;
+    private final Specification<Employee> noFilter = Specification.where(null);
+    private Pageable page;
+    private Long someId;
+
+    @Setup
+    public void setUp() {
+        context = ServiceContexts.boot(EmployeeServiceApplication.class, "employee-service");
+        repository = context.getBean(EmployeeRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        seed(context.getBean(JdbcTemplate.class));
+        page = PageRequest.of(0, pageSize, Sort.by("lastName", "id"));
+        someId = repository.findAll(PageRequest.of(0, 1)).getContent().get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void listEntities(Blackhole bh) {
+        readOnlyTx.executeWithoutResult(s -> {
+            List<Employee> rows = repository.findAll(noFilter, page).getContent();
+            rows.forEach(e -> bh.consume(EmployeeView.of(e)));
+        });
+    }
+
+    @Benchmark
+    public void listViews(Blackhole bh) {
+        readOnlyTx.executeWithoutResult(s -> repository.findViews(noFilter, page).getContent().forEach(bh::consume));
+    }
+
+    @Benchmark
+    public Object getEntity() {
+        return readOnlyTx.execute(s -> repository.findById(someId).map(EmployeeView::of).orElseThrow());
+    }
+
+    @Benchmark
+    public Object getView() {
+        return readOnlyTx.execute(s -> repository.findViewById(someId).orElseThrow());
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        Integer rows = jdbc.queryForObject("SELECT COUNT(*) FROM employee.employees", Integer.class);
+        if (rows != null && rows >= SEED_ROWS) return;
+        jdbc.update("""
+                INSERT INTO employee.employees (first_name, last_name, email, department_id)
+                SELECT 'Bench', 'Employee ' || g, 'bench.' || g || '@example.com', NULL
+                FROM generate_series(1, ?) g
+                ON CONFLICT (email) DO NOTHING
+                """, SEED_ROWS);
+    }
+}
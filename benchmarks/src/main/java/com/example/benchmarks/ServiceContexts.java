@@ -0,0 +1,55 @@
+package com.example.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots a service's application context without a web server, config server or Eureka, configured
+ * from {@code config-repo} and pointed at the database given by {@code -Dbench.jdbc.url/user/password}
+ * (defaults to the docker-compose database) or passed in explicitly.
+ * <p>
+ * Both service jars are on this module's classpath, so their {@code application.yml} and
+ * {@code db/migration} resources shadow each other; the config files and Flyway scripts are therefore
+ * read from the source tree. Run from the {@code benchmarks} directory (Maven does).
+ */
+public final class ServiceContexts {
+    private ServiceContexts() {}
+
+    /**
+     * @param service directory name of the service, which is also the name of its config-repo file
+     * @param extra   additional {@code key=value} properties
+     */
+    public static ConfigurableApplicationContext boot(Class<?> application, String service, String... extra) {
+        return boot(application, service, new Database(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/postgres?reWriteBatchedInserts=true"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "123456!")), extra);
+    }
+
+    public static ConfigurableApplicationContext boot(Class<?> application, String service, Database database,
+                                                      String... extra) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.config.location=optional:file:../config-repo/application.yml,"
+                        + "optional:file:../config-repo/" + service + ".yml",
+                "--spring.cloud.config.enabled=false",
+                "--spring.cloud.config.import-check.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.flyway.locations=filesystem:../" + service + "/src/main/resources/db/migration",
+                "--spring.datasource.url=" + database.url(),
+                "--spring.datasource.username=" + database.user(),
+                "--spring.datasource.password=" + database.password(),
+                "--logging.logstash.enabled=false",
+                "--logging.level.root=WARN"));
+        for (String property : extra) args.add("--" + property);
+        // command-line arguments, so they win over the config-repo files
+        return new SpringApplicationBuilder(application)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+
+    public record Database(String url, String user, String password) {}
+}
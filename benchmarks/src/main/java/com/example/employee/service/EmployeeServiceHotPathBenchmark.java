@@ -0,0 +1,84 @@
+package com.example.employee.service;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.dto.DepartmentDTO;
+import com.example.employee.dto.EmployeeDTO;
+import com.example.employee.repo.EmployeeView;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU-only pieces of {@link EmployeeService}: view-to-DTO mapping, the idempotency request hash and the
+ * list filter Specification, both composed and translated into a criteria query. Lives in the service's
+ * package to reach the package-private helpers; Hibernate is booted without a database connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeServiceHotPathBenchmark {
+
+    private final EmployeeView view =
+            new EmployeeView(42L, "Ada", "Lovelace", "ada.lovelace@example.com", 7L, 3L);
+    private final DepartmentDTO department = new DepartmentDTO();
+    private final EmployeeDTO createRequest = EmployeeDTO.builder()
+            .firstName("Ada").lastName("Lovelace").email("ada.lovelace@example.com").departmentId(7L).build();
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder cb;
+
+    @Setup
+    public void setUp() {
+        department.setId(7L);
+        department.setName("Engineering");
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Employee.class)
+                .setProperty(AvailableSettings.DIALECT, PostgreSQLDialect.class.getName())
+                // boot from the mappings alone; no connection is ever opened, so name the server version
+                .setProperty("hibernate.temp.use_jdbc_metadata_defaults", "false")
+                .setProperty(AvailableSettings.JAKARTA_HBM2DDL_DB_NAME, "PostgreSQL")
+                .setProperty(AvailableSettings.JAKARTA_HBM2DDL_DB_MAJOR_VERSION, "16")
+                .setProperty(AvailableSettings.JAKARTA_HBM2DDL_DB_MINOR_VERSION, "0")
+                .buildSessionFactory();
+        cb = sessionFactory.getCriteriaBuilder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public EmployeeDTO toDTO() {
+        return EmployeeService.toDTO(view, department, false);
+    }
+
+    @Benchmark
+    public String requestHash() {
+        return EmployeeService.requestHash(createRequest);
+    }
+
+    @Benchmark
+    public Specification<Employee> composeFilters() {
+        return EmployeeService.filters("ada.lovelace@example.com", "love", 7L);
+    }
+
+    @Benchmark
+    public CriteriaQuery<Employee> filtersToCriteria() {
+        Specification<Employee> spec = EmployeeService.filters("ada.lovelace@example.com", "love", 7L);
+        CriteriaQuery<Employee> query = cb.createQuery(Employee.class);
+        Root<Employee> root = query.from(Employee.class);
+        return query.where(spec.toPredicate(root, query, cb));
+    }
+}
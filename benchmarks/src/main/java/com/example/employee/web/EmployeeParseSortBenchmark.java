@@ -0,0 +1,24 @@
+package com.example.employee.web;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/** {@code sort} query parameter parsing in {@link EmployeeController}, for one and for three sort keys. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeParseSortBenchmark {
+
+    @Param({"lastName,asc", "lastName,asc;firstName,desc;id"})
+    String sort;
+
+    @Benchmark
+    public Sort parseSort() {
+        return EmployeeController.parseSort(sort);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.employee.web;
+
+import com.example.employee.dto.DepartmentDTO;
+import com.example.employee.dto.EmployeeDTO;
+import com.example.employee.dto.PageResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of a {@code GET /employees} body with the mapper settings Spring Boot applies,
+ * for a range of page sizes (every employee carries its department, as after enrichment).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageResponseSerializationBenchmark {
+
+    @Param({"1", "20", "100", "1000"})
+    int pageSize;
+
+    private ObjectWriter writer;
+    private PageResponse<EmployeeDTO> page;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writerFor(new TypeReference<PageResponse<EmployeeDTO>>() {});
+
+        List<EmployeeDTO> content = new ArrayList<>(pageSize);
+        for (long i = 1; i <= pageSize; i++) {
+            DepartmentDTO department = new DepartmentDTO();
+            department.setId(i % 10 + 1);
+            department.setName("Department " + (i % 10 + 1));
+            department.setDescription("Seeded for the serialization benchmark");
+            content.add(EmployeeDTO.builder()
+                    .id(i)
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email("employee" + i + "@example.com")
+                    .departmentId(department.getId())
+                    .department(department)
+                    .version(1L)
+                    .build());
+        }
+        page = new PageResponse<>(content, 0, pageSize, 10_000, 10_000 / pageSize, true, false);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
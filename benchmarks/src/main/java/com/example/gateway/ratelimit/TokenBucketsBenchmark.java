@@ -0,0 +1,64 @@
+package com.example.gateway.ratelimit;
+
+import com.example.gateway.ratelimit.TokenBuckets.Decision;
+import com.example.gateway.ratelimit.TokenBuckets.Limit;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the gateway's local rate limiter: one bucket decision, for a single hot key (allowed
+ * and denied), spread over {@code keys} clients, and with four threads contending for one bucket.
+ * {@link LocalRateLimiter} adds the header map and a {@code Mono.just} around this.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBucketsBenchmark {
+
+    @Param({"10000"})
+    int keys;
+
+    private TokenBuckets buckets;
+    private String[] keyNames;
+    // never runs dry within a measurement
+    private final Limit open = Limit.of(1e9, 1_000_000);
+    // always dry once the single token is spent
+    private final Limit closed = Limit.of(0.001, 1);
+
+    @Setup
+    public void setUp() {
+        buckets = new TokenBuckets(100_000, Duration.ofMinutes(10));
+        keyNames = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            keyNames[i] = "employee-bulk:ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+        buckets.tryConsume("denied", closed, 1);
+    }
+
+    @Benchmark
+    public Decision hotKeyAllowed() {
+        return buckets.tryConsume("employee-bulk:ip:10.0.0.1", open, 1);
+    }
+
+    @Benchmark
+    public Decision hotKeyDenied() {
+        return buckets.tryConsume("denied", closed, 1);
+    }
+
+    @Benchmark
+    public Decision manyKeys() {
+        return buckets.tryConsume(keyNames[ThreadLocalRandom.current().nextInt(keys)], open, 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Decision hotKeyContended() {
+        return buckets.tryConsume("employee-bulk:ip:10.0.0.1", open, 1);
+    }
+}
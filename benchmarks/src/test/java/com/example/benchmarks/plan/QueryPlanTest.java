@@ -0,0 +1,196 @@
+package com.example.benchmarks.plan;
+
+import com.example.benchmarks.ServiceContexts;
+import com.example.department.DepartmentServiceApplication;
+import com.example.department.domain.Department;
+import com.example.department.repo.DepartmentRepository;
+import com.example.department.repo.DepartmentSpecifications;
+import com.example.employee.EmployeeServiceApplication;
+import com.example.employee.domain.Employee;
+import com.example.employee.repo.EmployeeRepository;
+import com.example.employee.repo.EmployeeSpecifications;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan regression check for the list filters: seeds a large employees and departments table, runs every
+ * combination of the {@code lower()}-based Specifications through the repositories (page, count and keyset
+ * slice), captures the SQL and bound values Hibernate sends and fails if PostgreSQL answers any of it by
+ * reading the filtered table wholesale: a sequential scan, or any other scan whose {@code Filter} discarded
+ * more than a tenth of the table (e.g. walking the primary key in sort order and filtering every row).
+ * <p>
+ * Plans are taken with {@code EXPLAIN ANALYZE} on the statement with its values inlined, so the trigram
+ * indexes are costed against the actual pattern. The seeded rows never touch a real database: the check runs
+ * against an embedded PostgreSQL 16 that is thrown away at the end. Runs with the build's tests
+ * ({@code mvn -B -pl benchmarks -am test}); {@code -Dplan.rows} sets the number of seeded employees and
+ * departments.
+ */
+class QueryPlanTest {
+
+    private static final String CAPTURE = "spring.main.sources=" + SqlCapture.class.getName();
+    private static final PageRequest PAGE = PageRequest.of(1, 20, Sort.by("id"));
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<String> failures = new ArrayList<>();
+    private int checked;
+
+    @Test
+    void listFiltersNeverReadTheWholeTable() throws IOException {
+        int rows = Integer.getInteger("plan.rows", 200_000);
+        try (EmbeddedPostgres pg = EmbeddedPostgres.builder().start()) {
+            var database = new ServiceContexts.Database(
+                    pg.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true", "postgres", "");
+            employees(database, rows);
+            departments(database, rows);
+        }
+
+        assertThat(checked).as("statements checked").isPositive();
+        assertThat(failures).as("full table reads in %d statements", checked).isEmpty();
+    }
+
+    private void employees(ServiceContexts.Database database, int rows) {
+        try (ConfigurableApplicationContext ctx = ServiceContexts.boot(
+                EmployeeServiceApplication.class, "employee-service", database, CAPTURE)) {
+            JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+            jdbc.update("""
+                    INSERT INTO employee.employees (first_name, last_name, email, department_id)
+                    SELECT 'Plan', 'Plan ' || md5(g::text), 'plan.' || g || '@example.com', (g % 500) + 1
+                    FROM generate_series(1, ?) g
+                    ON CONFLICT (email) DO NOTHING
+                    """, rows);
+            jdbc.execute("ANALYZE employee.employees");
+            long size = jdbc.queryForObject("SELECT count(*) FROM employee.employees", Long.class);
+
+            EmployeeRepository repository = ctx.getBean(EmployeeRepository.class);
+            Sort keyset = Sort.by("lastName", "id");
+            var after = new com.example.employee.repo.KeysetCursor("lastName", Sort.Direction.ASC, "Plan 8", 0L);
+            // mask 0: only the keyset slice, whose cursor is then the sole predicate (an unfiltered page or
+            // count reads the whole table by definition)
+            for (int mask = 0; mask < 8; mask++) {
+                String email = (mask & 1) != 0 ? "plan.42@example.com" : null;
+                String lastName = (mask & 2) != 0 ? "a1b" : null;
+                Long departmentId = (mask & 4) != 0 ? 42L : null;
+                Specification<Employee> spec = Specification.where(EmployeeSpecifications.emailEquals(email))
+                        .and(EmployeeSpecifications.lastNameContains(lastName))
+                        .and(EmployeeSpecifications.departmentIdEquals(departmentId));
+                String label = "employees email=" + email + " lastName=" + lastName + " departmentId=" + departmentId;
+                boolean filtered = mask != 0;
+                check(jdbc, "employees", size, label, SqlCapture.during(() -> {
+                    if (filtered) {
+                        repository.findViews(spec, PAGE);
+                        repository.count(spec);
+                    }
+                    repository.findViewSlice(spec.and(EmployeeSpecifications.after(after)), keyset, 21);
+                }));
+            }
+        }
+    }
+
+    private void departments(ServiceContexts.Database database, int rows) {
+        try (ConfigurableApplicationContext ctx = ServiceContexts.boot(
+                DepartmentServiceApplication.class, "department-service", database, CAPTURE)) {
+            JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+            jdbc.update("""
+                    INSERT INTO department.departments (name, code)
+                    SELECT 'Plan ' || md5(g::text), 'plan-' || g
+                    FROM generate_series(1, ?) g
+                    ON CONFLICT (code) DO NOTHING
+                    """, rows);
+            jdbc.execute("ANALYZE department.departments");
+            long size = jdbc.queryForObject("SELECT count(*) FROM department.departments", Long.class);
+
+            DepartmentRepository repository = ctx.getBean(DepartmentRepository.class);
+            Sort keyset = Sort.by("name", "id");
+            var after = new com.example.department.repo.KeysetCursor("name", Sort.Direction.ASC, "Plan 8", 0L);
+            for (int mask = 0; mask < 4; mask++) {
+                String name = (mask & 1) != 0 ? "a1b" : null;
+                String code = (mask & 2) != 0 ? "plan-42" : null;
+                Specification<Department> spec = Specification.where(DepartmentSpecifications.nameContains(name))
+                        .and(DepartmentSpecifications.codeEquals(code));
+                String label = "departments name=" + name + " code=" + code;
+                boolean filtered = mask != 0;
+                check(jdbc, "departments", size, label, SqlCapture.during(() -> {
+                    if (filtered) {
+                        repository.findViews(spec, PAGE);
+                        repository.count(spec);
+                    }
+                    repository.findViewSlice(spec.and(DepartmentSpecifications.after(after)), keyset, 21);
+                }));
+            }
+        }
+    }
+
+    private void check(JdbcTemplate jdbc, String table, long size, String label, List<SqlCapture.Statement> statements) {
+        for (SqlCapture.Statement statement : statements) {
+            checked++;
+            String sql = inlined(statement);
+            JsonNode plan = explain(jdbc, sql);
+            List<String> scans = new ArrayList<>();
+            walk(plan, node -> {
+                if (!table.equals(node.path("Relation Name").asText())) return;
+                String type = node.path("Node Type").asText();
+                long discarded = node.path("Rows Removed by Filter").asLong() * Math.max(1, node.path("Actual Loops").asLong());
+                if ("Seq Scan".equals(type) || discarded > size / 10) {
+                    scans.add(type + " " + node.path("Index Name").asText("") + " discarded " + discarded + "/" + size
+                            + " by filter " + node.path("Filter").asText("(none)"));
+                }
+            });
+            if (!scans.isEmpty()) {
+                failures.add("FULL SCAN of " + table + " for [" + label + "]: " + sql + " -- " + scans);
+            }
+        }
+    }
+
+    private JsonNode explain(JdbcTemplate jdbc, String sql) {
+        try {
+            return mapper.readTree(jdbc.queryForObject("EXPLAIN (ANALYZE, FORMAT JSON) " + sql, String.class));
+        } catch (com.fasterxml.jackson.core.JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable plan for: " + sql, ex);
+        }
+    }
+
+    // JDBC '?' placeholders -> the bound values as SQL literals, leaving quoted literals alone
+    static String inlined(SqlCapture.Statement statement) {
+        String sql = statement.sql();
+        StringBuilder out = new StringBuilder(sql.length() + 64);
+        boolean quoted = false;
+        int n = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') quoted = !quoted;
+            if (c == '?' && !quoted) out.append(literal(statement.parameters().get(++n)));
+            else out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static String literal(Object value) {
+        if (value == null) return "NULL";
+        if (value instanceof Number || value instanceof Boolean) return value.toString();
+        return "'" + value.toString().replace("'", "''") + "'";
+    }
+
+    private static void walk(JsonNode node, Consumer<JsonNode> visitor) {
+        if (node.isArray()) {
+            node.forEach(child -> walk(child, visitor));
+        } else if (node.isObject()) {
+            if (node.has("Node Type")) visitor.accept(node);
+            if (node.has("Plan")) walk(node.get("Plan"), visitor);
+            if (node.has("Plans")) walk(node.get("Plans"), visitor);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.benchmarks.plan;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Records the prepared statements sent on the current thread while {@link #during(Runnable)} runs, together
+ * with the values bound to them. Registered as a bean post-processor (through {@code spring.main.sources}) that
+ * wraps the context's {@link DataSource}.
+ */
+public class SqlCapture implements BeanPostProcessor {
+
+    /** A statement as sent, with its parameters by position (1-based). */
+    public record Statement(String sql, SortedMap<Integer, Object> parameters) {}
+
+    private static final ThreadLocal<List<Statement>> CAPTURED = new ThreadLocal<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource
+                ? proxy(DataSource.class, dataSource, (target, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    return result instanceof Connection con ? connection(con) : result;
+                })
+                : bean;
+    }
+
+    /** Runs the action and returns the statements it sent, in order. */
+    public static List<Statement> during(Runnable action) {
+        List<Statement> captured = new ArrayList<>();
+        CAPTURED.set(captured);
+        try {
+            action.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        return captured;
+    }
+
+    private static Connection connection(Connection con) {
+        return proxy(Connection.class, con, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            List<Statement> captured = CAPTURED.get();
+            if (captured == null || !(result instanceof PreparedStatement ps) || !method.getName().equals("prepareStatement")) {
+                return result;
+            }
+            Statement statement = new Statement((String) args[0], new TreeMap<>());
+            captured.add(statement);
+            return proxy(PreparedStatement.class, ps, (t, m, a) -> {
+                if (m.getName().startsWith("set") && a != null && a.length >= 2 && a[0] instanceof Integer index) {
+                    statement.parameters().put(index, m.getName().equals("setNull") ? null : a[1]);
+                }
+                return invoke(t, m, a);
+            });
+        });
+    }
+
+    private interface Handler<T> {
+        Object handle(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+        InvocationHandler invocation = (p, method, args) -> handler.handle(target, method, args);
+        return (T) Proxy.newProxyInstance(SqlCapture.class.getClassLoader(), new Class<?>[]{type}, invocation);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
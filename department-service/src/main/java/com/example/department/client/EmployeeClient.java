@@ -1,10 +1,10 @@
 package com.example.department.client;
 
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.List;
 import java.util.Map;
 
 @FeignClient(
@@ -15,15 +15,14 @@ import java.util.Map;
 )
 public interface EmployeeClient {
 
-    // We’ll reuse employee list endpoint with department filter for protective delete (size=1 is enough).
-    @GetMapping
-    Map<String, Object> listByDepartment(@RequestParam("page") int page,
-                                         @RequestParam("size") int size,
-                                         @RequestParam("departmentId") Long departmentId);
+    // Protective delete: indexed EXISTS probe, no count, no entity load, no enrichment call back to us
+    @GetMapping("/exists")
+    Map<String, Boolean> existsByDepartment(@RequestParam("departmentId") Long departmentId);
 
-    // Convenience composition endpoint: re-use search or list
+    // Composition endpoint: the raw response (status, headers, unread body) so it can be streamed through.
+    // Non-2xx statuses are returned, not thrown; the caller must close the response.
     @GetMapping
-    Map<String, Object> listPaged(@RequestParam("page") int page,
-                                  @RequestParam("size") int size,
-                                  @RequestParam(value = "departmentId", required = false) Long departmentId);
+    Response listPaged(@RequestParam("page") int page,
+                       @RequestParam("size") int size,
+                       @RequestParam(value = "departmentId", required = false) Long departmentId);
 }
@@ -1,11 +1,11 @@
 package com.example.department.client;
 
+import feign.Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.cloud.openfeign.FallbackFactory;
 
-import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -18,16 +18,18 @@ public class EmployeeClientFallback implements EmployeeClient {
 
     EmployeeClientFallback(Throwable cause) { this.cause = cause; }
 
+    // rethrown, not absorbed: the failure must reach EmployeeUsageProbe's employeeExists circuit breaker
     @Override
-    public Map<String, Object> listByDepartment(int page, int size, Long departmentId) {
-        log.warn("EmployeeClient fallback listByDepartment(depId={}): {}", departmentId, cause);
-        return Map.of("content", List.of(), "page", page, "size", size, "fallback", true);
+    public Map<String, Boolean> existsByDepartment(Long departmentId) {
+        if (cause instanceof RuntimeException ex) throw ex;
+        throw new IllegalStateException("existsByDepartment(depId=" + departmentId + ") failed", cause);
     }
 
+    // null = lookup failed; the caller answers with its own fallback page
     @Override
-    public Map<String, Object> listPaged(int page, int size, Long departmentId) {
+    public Response listPaged(int page, int size, Long departmentId) {
         log.warn("EmployeeClient fallback listPaged(depId={}): {}", departmentId, cause);
-        return Map.of("content", List.of(), "page", page, "size", size, "downstream", "EMPLOYEE-SERVICE unavailable", "fallback", true);
+        return null;
     }
 
     @Component
@@ -0,0 +1,34 @@
+package com.example.department.client;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Asks EMPLOYEE-SERVICE whether a department is referenced, behind its own {@code employeeExists}
+ * circuit breaker (tighter than the one for list/composition calls). The Feign fallback rethrows for this
+ * call, so downstream errors count as failures here; an open circuit or an error answers
+ * {@link Optional#empty()}, meaning "could not check".
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeeUsageProbe {
+
+    private final EmployeeClient employeeClient;
+
+    @CircuitBreaker(name = "employeeExists", fallbackMethod = "unknown")
+    public Optional<Boolean> inUse(Long departmentId) {
+        Map<String, Boolean> result = employeeClient.existsByDepartment(departmentId);
+        return Optional.ofNullable(result).map(r -> r.get("exists"));
+    }
+
+    private Optional<Boolean> unknown(Long departmentId, Throwable cause) {
+        log.warn("Employee usage probe failed for department {}: {}", departmentId, cause.toString());
+        return Optional.empty();
+    }
+}
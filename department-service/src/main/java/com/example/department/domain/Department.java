@@ -22,4 +22,9 @@ public class Department {
 
     @Column(columnDefinition = "text")
     private String description;
+
+    // bumped on every update; source of the resource ETag (see V5 migration)
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
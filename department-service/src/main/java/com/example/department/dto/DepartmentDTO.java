@@ -1,5 +1,6 @@
 package com.example.department.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -19,4 +20,8 @@ public class DepartmentDTO {
     private String managerEmail;
 
     private String description;
+
+    // row version behind the ETag header; not part of the body
+    @JsonIgnore
+    private Long version;
 }
@@ -1,13 +1,37 @@
 package com.example.department.repo;
 
 import com.example.department.domain.Department;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface DepartmentRepository extends JpaRepository<Department, Long>, JpaSpecificationExecutor<Department> {
+public interface DepartmentRepository extends JpaRepository<Department, Long>, JpaSpecificationExecutor<Department>,
+        DepartmentRepositoryCustom {
     boolean existsByCode(String code);
     boolean existsByCodeAndIdNot(String code, Long id);
     Optional<Department> findByCode(String code);
+
+    // conditional requests: one primary-key lookup instead of loading the row
+    @Query("select d.version from Department d where d.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(DepartmentView.SELECT + " where d.id = :id")
+    Optional<DepartmentView> findViewById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(DepartmentView.SELECT + " where d.code = :code")
+    Optional<DepartmentView> findViewByCode(@Param("code") String code);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(DepartmentView.SELECT + " where d.id in :ids")
+    List<DepartmentView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
 }
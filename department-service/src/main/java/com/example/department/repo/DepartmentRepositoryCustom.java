@@ -0,0 +1,20 @@
+package com.example.department.repo;
+
+import com.example.department.domain.Department;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface DepartmentRepositoryCustom {
+    // Specification queries projected to DepartmentView (read-only, only the needed columns)
+    Page<DepartmentView> findViews(Specification<Department> spec, Pageable pageable);
+
+    // (id, version) pairs of the same page as findViews; cheap input for list ETags
+    Page<Object[]> findVersions(Specification<Department> spec, Pageable pageable);
+
+    // LIMIT-only query (no OFFSET, no COUNT) used by keyset pagination
+    List<DepartmentView> findViewSlice(Specification<Department> spec, Sort sort, int limit);
+}
@@ -0,0 +1,81 @@
+package com.example.department.repo;
+
+import com.example.department.domain.Department;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+class DepartmentRepositoryCustomImpl implements DepartmentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public Page<DepartmentView> findViews(Specification<Department> spec, Pageable pageable) {
+        return page(viewQuery(spec, pageable.getSort()), spec, pageable);
+    }
+
+    @Override
+    public Page<Object[]> findVersions(Specification<Department> spec, Pageable pageable) {
+        TypedQuery<Object[]> query = query(spec, pageable.getSort(), Object[].class,
+                (cb, root) -> cb.array(root.get("id"), root.get("version")));
+        return page(query, spec, pageable);
+    }
+
+    @Override
+    public List<DepartmentView> findViewSlice(Specification<Department> spec, Sort sort, int limit) {
+        return viewQuery(spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    private <R> Page<R> page(TypedQuery<R> query, Specification<Department> spec, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        // the count query is skipped when the first page is already the last one
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    private TypedQuery<DepartmentView> viewQuery(Specification<Department> spec, Sort sort) {
+        return query(spec, sort, DepartmentView.class, (cb, root) -> cb.construct(DepartmentView.class,
+                root.get("id"), root.get("name"), root.get("code"), root.get("managerEmail"), root.get("description"),
+                root.get("version")));
+    }
+
+    private <R> TypedQuery<R> query(Specification<Department> spec, Sort sort, Class<R> type,
+                                    BiFunction<CriteriaBuilder, Root<Department>, Selection<? extends R>> selection) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<R> cq = cb.createQuery(type);
+        Root<Department> root = cq.from(Department.class);
+        cq.select(selection.apply(cb, root));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, cq, cb);
+        if (predicate != null) cq.where(predicate);
+        if (sort.isSorted()) cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return em.createQuery(cq).setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    private long count(Specification<Department> spec) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Department> root = cq.from(Department.class);
+        cq.select(cb.count(root));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, cq, cb);
+        if (predicate != null) cq.where(predicate);
+        return em.createQuery(cq).getSingleResult();
+    }
+}
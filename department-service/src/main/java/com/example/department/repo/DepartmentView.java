@@ -0,0 +1,20 @@
+package com.example.department.repo;
+
+import com.example.department.domain.Department;
+
+/**
+ * Read-side projection of a department: only the columns responses need, built straight from the
+ * result set (constructor expression), so no managed entity or dirty-checking snapshot is created.
+ */
+public record DepartmentView(Long id, String name, String code, String managerEmail, String description,
+                             Long version) {
+
+    // JPQL constructor expression selecting exactly these columns, in this order
+    public static final String SELECT = "select new com.example.department.repo.DepartmentView("
+            + "d.id, d.name, d.code, d.managerEmail, d.description, d.version) from Department d";
+
+    public static DepartmentView of(Department d) {
+        return new DepartmentView(d.getId(), d.getName(), d.getCode(), d.getManagerEmail(), d.getDescription(),
+                d.getVersion());
+    }
+}
@@ -1,41 +1,124 @@
 package com.example.department.service;
 
 import com.example.department.client.EmployeeClient;
+import com.example.department.client.EmployeeUsageProbe;
 import com.example.department.domain.Department;
 import com.example.department.dto.*;
 import com.example.department.repo.DepartmentRepository;
 import com.example.department.repo.DepartmentSpecifications;
+import com.example.department.repo.DepartmentView;
+import com.example.department.repo.KeysetCursor;
+import com.example.department.web.ErrorHandling.PreconditionFailedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import feign.Response;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 import java.util.*;
 
+/**
+ * Public operations are timed as {@code departments.service{class,method}}, with a percentile histogram;
+ * composition calls answered by the fallback count as {@code departments.composition.fallbacks}.
+ */
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Timed(value = "departments.service", histogram = true)
 public class DepartmentService {
 
+    static final int MAX_BATCH_IDS = 500;
+
+    // sort keys usable for keyset pagination (non-null columns; id is always the tie-breaker)
+    private static final Set<String> KEYSET_FIELDS = Set.of("name", "code", "id");
+
     private final DepartmentRepository repository;
     private final EmployeeClient employeeClient;
+    private final EmployeeUsageProbe employeeUsage;
+    private final MeterRegistry meterRegistry;
 
     public Page<DepartmentDTO> list(int page, int size, Sort sort, String nameContains, String code) {
         Pageable pageable = PageRequest.of(page, size, sort);
-        Specification<Department> spec = Specification.where(DepartmentSpecifications.nameContains(nameContains))
-                .and(DepartmentSpecifications.codeEquals(code));
-        return repository.findAll(spec, pageable).map(this::toDTO);
+        return repository.findViews(filters(nameContains, code), pageable).map(DepartmentService::toDTO);
+    }
+
+    // Keyset pagination: seek past the cursor instead of OFFSET, and skip the COUNT query
+    public CursorPage<DepartmentDTO> listByCursor(int size, Sort sort, String cursor, String nameContains, String code) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        KeysetCursor after = (cursor == null || cursor.isBlank()) ? null : KeysetCursor.decode(cursor);
+        Sort.Order order = after != null
+                ? new Sort.Order(after.direction(), after.field())
+                : sort.stream().findFirst().orElse(Sort.Order.asc("name"));
+        if (!KEYSET_FIELDS.contains(order.getProperty())) {
+            throw new IllegalArgumentException("Cursor pagination supports sorting by " + KEYSET_FIELDS);
+        }
+        Sort keysetSort = "id".equals(order.getProperty())
+                ? Sort.by(order)
+                : Sort.by(order, new Sort.Order(order.getDirection(), "id"));
+        Specification<Department> spec = filters(nameContains, code).and(DepartmentSpecifications.after(after));
+
+        List<DepartmentView> rows = repository.findViewSlice(spec, keysetSort, size + 1);
+        boolean last = rows.size() <= size;
+        List<DepartmentView> content = last ? rows : rows.subList(0, size);
+        String next = null;
+        if (!last) {
+            DepartmentView tail = content.get(content.size() - 1);
+            next = new KeysetCursor(order.getProperty(), order.getDirection(),
+                    keysetValue(tail, order.getProperty()), tail.id()).encode();
+        }
+        return new CursorPage<>(content.stream().map(DepartmentService::toDTO).toList(), size, next, last);
+    }
+
+    /** Validator for a loaded page of {@link #list}: a digest of the total and the rows' (id, version) pairs. */
+    public static String listVersion(Page<DepartmentDTO> page) {
+        return pageDigest(page.getTotalElements(),
+                page.getContent().stream().map(d -> new Object[] { d.getId(), d.getVersion() }).toList());
+    }
+
+    /**
+     * The same validator from an (id, version)-only query, without loading the rows. Costs an extra query
+     * (and COUNT), so only worth it when the client sent If-None-Match.
+     */
+    public String listVersion(int page, int size, Sort sort, String nameContains, String code) {
+        Page<Object[]> p = repository.findVersions(filters(nameContains, code), PageRequest.of(page, size, sort));
+        return pageDigest(p.getTotalElements(), p.getContent());
+    }
+
+    private static String pageDigest(long total, List<Object[]> idVersions) {
+        StringBuilder sb = new StringBuilder().append(total);
+        idVersions.forEach(row -> sb.append('|').append(row[0]).append(':').append(row[1]));
+        return DigestUtils.md5DigestAsHex(sb.toString().getBytes());
+    }
+
+    public long versionOf(Long id) {
+        return repository.findVersionById(id).orElseThrow(() -> new EntityNotFoundException("Department not found"));
     }
 
     public DepartmentDTO getById(Long id) {
-        Department d = repository.findById(id).orElseThrow(() -> new EntityNotFoundException("Department not found"));
+        DepartmentView d = repository.findViewById(id).orElseThrow(() -> new EntityNotFoundException("Department not found"));
         return toDTO(d);
     }
 
+    public List<DepartmentDTO> getByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return List.of();
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("Too many ids; max=" + MAX_BATCH_IDS);
+        }
+        return repository.findViewsByIdIn(new LinkedHashSet<>(ids)).stream()
+                .map(DepartmentService::toDTO)
+                .toList();
+    }
+
     public DepartmentDTO getByCode(String code) {
-        Department d = repository.findByCode(code).orElseThrow(() -> new EntityNotFoundException("Department not found"));
+        DepartmentView d = repository.findViewByCode(code).orElseThrow(() -> new EntityNotFoundException("Department not found"));
         return toDTO(d);
     }
 
@@ -53,9 +136,11 @@ public class DepartmentService {
         return toDTO(repository.save(d));
     }
 
+    /** {@code ifMatch}: acceptable current versions (If-Match), or null when the request is unconditional. */
     @Transactional
-    public DepartmentDTO put(Long id, UpdateDepartmentRequest req) {
+    public DepartmentDTO put(Long id, UpdateDepartmentRequest req, Set<Long> ifMatch) {
         Department d = repository.findById(id).orElseThrow(() -> new EntityNotFoundException("Department not found"));
+        checkVersion(d, ifMatch);
         if (repository.existsByCodeAndIdNot(req.getCode(), id)) {
             throw new IllegalArgumentException("Department code must be unique");
         }
@@ -63,12 +148,14 @@ public class DepartmentService {
         d.setCode(req.getCode());
         d.setManagerEmail(req.getManagerEmail());
         d.setDescription(req.getDescription());
+        flush(ifMatch);   // bumps the version, so the response carries the new ETag
         return toDTO(d);
     }
 
     @Transactional
-    public DepartmentDTO patch(Long id, PatchDepartmentRequest req) {
+    public DepartmentDTO patch(Long id, PatchDepartmentRequest req, Set<Long> ifMatch) {
         Department d = repository.findById(id).orElseThrow(() -> new EntityNotFoundException("Department not found"));
+        checkVersion(d, ifMatch);
         if (req.getCode() != null && repository.existsByCodeAndIdNot(req.getCode(), id)) {
             throw new IllegalArgumentException("Department code must be unique");
         }
@@ -76,6 +163,7 @@ public class DepartmentService {
         if (req.getCode() != null) d.setCode(req.getCode());
         if (req.getManagerEmail() != null) d.setManagerEmail(req.getManagerEmail());
         if (req.getDescription() != null) d.setDescription(req.getDescription());
+        flush(ifMatch);
         return toDTO(d);
     }
 
@@ -83,24 +171,22 @@ public class DepartmentService {
     public void deleteProtective(Long id) {
         Department d = repository.findById(id).orElseThrow(() -> new EntityNotFoundException("Department not found"));
 
-        // Protective check: ask Employee service if any employees reference this department
-        try {
-            Map<String, Object> page = employeeClient.listByDepartment(0, 1, id);
-            // If content array has at least 1, block the delete
-            Object content = page.get("content");
-            if (content instanceof List<?> list && !list.isEmpty()) {
-                throw new IllegalArgumentException("Department is in use by employees; reassign or remove employees first");
-            }
-        } catch (Exception e) {
-            // Downstream failure: be conservative and block delete with guidance
-            throw new IllegalArgumentException("Cannot verify department usage at this time; try again later");
+        // Protective check: ask Employee service if any employees reference this department.
+        // Downstream failure: be conservative and block delete with guidance
+        boolean inUse = employeeUsage.inUse(id).orElseThrow(
+                () -> new IllegalArgumentException("Cannot verify department usage at this time; try again later"));
+        if (inUse) {
+            throw new IllegalArgumentException("Department is in use by employees; reassign or remove employees first");
         }
 
         repository.delete(d);
     }
 
-    // Composition: return employees under this department (paged)
-    public Map<String, Object> employeesOf(Long id, int page, int size) {
+    /**
+     * Composition: the employee page of this department as the undecoded downstream response, to be streamed
+     * to the caller as-is (caller closes it). Null when EMPLOYEE-SERVICE could not be reached.
+     */
+    public Response employeesOf(Long id, int page, int size) {
         // validate department exists
         if (!repository.existsById(id)) {
             throw new EntityNotFoundException("Department not found");
@@ -108,23 +194,62 @@ public class DepartmentService {
         try {
             return employeeClient.listPaged(page, size, id);
         } catch (Exception e) {
-            // graceful: stable error shape for composition
-            Map<String, Object> fallback = new HashMap<>();
-            fallback.put("content", List.of());
-            fallback.put("page", page);
-            fallback.put("size", size);
-            fallback.put("downstream", "EMPLOYEE-SERVICE unavailable");
-            return fallback;
+            meterRegistry.counter("departments.composition.fallbacks").increment();
+            return null;
         }
     }
 
-    private DepartmentDTO toDTO(Department d) {
+    // graceful: stable error shape for composition when the downstream fails
+    public Map<String, Object> employeesUnavailable(int page, int size) {
+        Map<String, Object> fallback = new HashMap<>();
+        fallback.put("content", List.of());
+        fallback.put("page", page);
+        fallback.put("size", size);
+        fallback.put("downstream", "EMPLOYEE-SERVICE unavailable");
+        return fallback;
+    }
+
+    private static Specification<Department> filters(String nameContains, String code) {
+        return Specification.where(DepartmentSpecifications.nameContains(nameContains))
+                .and(DepartmentSpecifications.codeEquals(code));
+    }
+
+    private static void checkVersion(Department d, Set<Long> ifMatch) {
+        if (ifMatch != null && !ifMatch.contains(d.getVersion())) {
+            throw new PreconditionFailedException("Department was modified; current version does not match If-Match");
+        }
+    }
+
+    // a concurrent update that commits between checkVersion and the UPDATE also breaks the If-Match: 412, not 409
+    private void flush(Set<Long> ifMatch) {
+        try {
+            repository.flush();
+        } catch (OptimisticLockingFailureException ex) {
+            if (ifMatch == null) throw ex;
+            throw new PreconditionFailedException("Department was modified concurrently; If-Match no longer holds");
+        }
+    }
+
+    private static String keysetValue(DepartmentView d, String field) {
+        return switch (field) {
+            case "name" -> d.name();
+            case "code" -> d.code();
+            default -> null;
+        };
+    }
+
+    private static DepartmentDTO toDTO(Department d) {
+        return toDTO(DepartmentView.of(d));
+    }
+
+    private static DepartmentDTO toDTO(DepartmentView d) {
         return DepartmentDTO.builder()
-                .id(d.getId())
-                .name(d.getName())
-                .code(d.getCode())
-                .managerEmail(d.getManagerEmail())
-                .description(d.getDescription())
+                .id(d.id())
+                .name(d.name())
+                .code(d.code())
+                .managerEmail(d.managerEmail())
+                .description(d.description())
+                .version(d.version())
                 .build();
     }
 }
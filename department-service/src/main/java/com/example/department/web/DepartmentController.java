@@ -2,15 +2,22 @@ package com.example.department.web;
 
 import com.example.department.dto.*;
 import com.example.department.service.DepartmentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Response;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
+import java.io.IOException;
+import java.util.List;
 
 @Tag(name = "Departments")
 @RestController
@@ -19,26 +26,61 @@ import java.util.Map;
 public class DepartmentController {
 
     private final DepartmentService service;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "List departments with pagination, sorting, and filters")
     @GetMapping
-    public PageResponse<DepartmentDTO> all(
+    public ResponseEntity<PageResponse<DepartmentDTO>> all(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "name,asc") String sort,
             @RequestParam(required = false, name = "name") String nameContains,
-            @RequestParam(required = false) String code
+            @RequestParam(required = false) String code,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
         Sort sortObj = parseSort(sort);
+        // If-None-Match → 304 when no row on the page changed (checked with an id/version-only query)
+        if (ifNoneMatch != null) {
+            String current = ETags.ofPage(service.listVersion(page, size, sortObj, nameContains, code));
+            if (ETags.notModified(ifNoneMatch, current)) {
+                return ETags.notModifiedResponse(current);
+            }
+        }
         var p = service.list(page, size, sortObj, nameContains, code);
-        return new PageResponse<>(p.getContent(), p.getNumber(), p.getSize(),
-                p.getTotalElements(), p.getTotalPages(), p.isFirst(), p.isLast());
+        String etag = ETags.ofPage(DepartmentService.listVersion(p));
+        return ResponseEntity.ok().eTag(etag).body(new PageResponse<>(p.getContent(), p.getNumber(), p.getSize(),
+                p.getTotalElements(), p.getTotalPages(), p.isFirst(), p.isLast()));
+    }
+
+    @Operation(summary = "List departments with keyset (cursor) pagination; no total count")
+    @GetMapping(params = "cursor")
+    public CursorPage<DepartmentDTO> allByCursor(
+            @RequestParam(defaultValue = "") String cursor,   // opaque nextCursor; empty for the first page
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "name,asc") String sort,
+            @RequestParam(required = false, name = "name") String nameContains,
+            @RequestParam(required = false) String code
+    ) {
+        return service.listByCursor(size, parseSort(sort), cursor, nameContains, code);
+    }
+
+    @Operation(summary = "Batch lookup by ids; unknown ids are omitted from the result")
+    @GetMapping("/batch")
+    public List<DepartmentDTO> batch(@RequestParam("ids") List<Long> ids) {
+        return service.getByIds(ids);
     }
 
-    @Operation(summary = "Get department by id")
+    @Operation(summary = "Get department by id; If-None-Match → 304 after a single version lookup")
     @GetMapping("/{id}")
-    public DepartmentDTO byId(@PathVariable Long id) {
-        return service.getById(id);
+    public ResponseEntity<DepartmentDTO> byId(@PathVariable Long id,
+                                              @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                              String ifNoneMatch) {
+        String current = ETags.ofVersion(service.versionOf(id));
+        if (ETags.notModified(ifNoneMatch, current)) {
+            return ETags.notModifiedResponse(current);
+        }
+        DepartmentDTO dto = service.getById(id);
+        return ResponseEntity.ok().eTag(ETags.ofVersion(dto.getVersion())).body(dto);
     }
 
     @Operation(summary = "Create department (code must be unique)")
@@ -48,16 +90,22 @@ public class DepartmentController {
         return service.create(dto);
     }
 
-    @Operation(summary = "Full update (code remains unique)")
+    @Operation(summary = "Full update (code remains unique); optional If-Match, 412 on a stale ETag")
     @PutMapping("/{id}")
-    public DepartmentDTO put(@PathVariable Long id, @Valid @RequestBody UpdateDepartmentRequest req) {
-        return service.put(id, req);
+    public ResponseEntity<DepartmentDTO> put(@PathVariable Long id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @Valid @RequestBody UpdateDepartmentRequest req) {
+        DepartmentDTO dto = service.put(id, req, ETags.ifMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.ofVersion(dto.getVersion())).body(dto);
     }
 
-    @Operation(summary = "Partial update")
+    @Operation(summary = "Partial update; optional If-Match, 412 on a stale ETag")
     @PatchMapping("/{id}")
-    public DepartmentDTO patch(@PathVariable Long id, @Valid @RequestBody PatchDepartmentRequest req) {
-        return service.patch(id, req);
+    public ResponseEntity<DepartmentDTO> patch(@PathVariable Long id,
+                                               @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @Valid @RequestBody PatchDepartmentRequest req) {
+        DepartmentDTO dto = service.patch(id, req, ETags.ifMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.ofVersion(dto.getVersion())).body(dto);
     }
 
     @Operation(summary = "Protective delete; returns 409 if employees reference this department")
@@ -73,15 +121,27 @@ public class DepartmentController {
         return service.getByCode(code);
     }
 
+    // Streams the Employee service response bytes through (status and headers preserved) instead of
+    // decoding and re-encoding the page; a stable fallback page is written when the downstream fails.
     @Operation(summary = "Employees in the department (composed from Employee service)")
     @GetMapping("/{id}/employees")
-    public Map<String, Object> employees(@PathVariable Long id,
-                                         @RequestParam(defaultValue = "0") int page,
-                                         @RequestParam(defaultValue = "20") int size) {
-        return service.employeesOf(id, page, size);
+    public void employees(@PathVariable Long id,
+                          @RequestParam(defaultValue = "0") int page,
+                          @RequestParam(defaultValue = "20") int size,
+                          HttpServletResponse response) throws IOException {
+        Response downstream = service.employeesOf(id, page, size);
+        if (downstream == null || downstream.status() >= 500) {
+            if (downstream != null) downstream.close();
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), service.employeesUnavailable(page, size));
+            return;
+        }
+        try (downstream) {
+            PassThrough.copy(downstream, response);
+        }
     }
 
-    private Sort parseSort(String sort) {
+    static Sort parseSort(String sort) {
         String[] parts = sort.split("[;]");
         Sort sortObj = Sort.unsorted();
         for (String p : parts) {
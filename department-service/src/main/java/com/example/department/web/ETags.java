@@ -0,0 +1,57 @@
+package com.example.department.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/** Strong ETags derived from row versions, and parsing of {@code If-Match}. */
+final class ETags {
+
+    private ETags() {}
+
+    static String ofVersion(long version) {
+        return "\"v" + version + "\"";
+    }
+
+    static String ofPage(String digest) {
+        return "\"p-" + digest + "\"";
+    }
+
+    /** True when {@code If-None-Match} lists {@code etag} (weak comparison) or is {@code *}. */
+    static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.startsWith("W/")) t = t.substring(2);
+            if (t.equals("*") || t.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModifiedResponse(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    /**
+     * Versions named by an {@code If-Match} header, or null when there is no precondition
+     * ({@code *} or no header; a missing resource is a 404 anyway). Weak or foreign tags never
+     * match, so a header made only of those yields an empty set and the update fails with 412.
+     */
+    static Set<Long> ifMatch(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) return null;
+        Set<Long> versions = new HashSet<>();
+        for (String tag : header.split(",")) {
+            String t = tag.trim();
+            if (t.length() > 3 && t.startsWith("\"v") && t.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(t.substring(2, t.length() - 1)));
+                } catch (NumberFormatException ignored) {
+                    // not one of ours
+                }
+            }
+        }
+        return versions;
+    }
+}
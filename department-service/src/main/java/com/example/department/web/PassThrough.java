@@ -0,0 +1,36 @@
+package com.example.department.web;
+
+import feign.Response;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/** Copies an undecoded Feign response (status, end-to-end headers, body bytes) onto the servlet response. */
+final class PassThrough {
+
+    // hop-by-hop headers (RFC 9110 §7.6.1) belong to the downstream connection, not to our caller
+    private static final Set<String> HOP_BY_HOP = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+            "te", "trailer", "transfer-encoding", "upgrade");
+
+    private PassThrough() {}
+
+    static void copy(Response from, HttpServletResponse to) throws IOException {
+        to.setStatus(from.status());
+        for (Map.Entry<String, Collection<String>> h : from.headers().entrySet()) {
+            if (HOP_BY_HOP.contains(h.getKey().toLowerCase(Locale.ROOT))) continue;
+            for (String value : h.getValue()) {
+                to.addHeader(h.getKey(), value);
+            }
+        }
+        if (from.body() == null) return;
+        try (InputStream in = from.body().asInputStream()) {
+            in.transferTo(to.getOutputStream());
+        }
+    }
+}
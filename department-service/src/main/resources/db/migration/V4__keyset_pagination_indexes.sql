@@ -0,0 +1,2 @@
+-- (sort key, id) index so keyset pages seek straight to the cursor instead of scanning an OFFSET
+CREATE INDEX IF NOT EXISTS idx_departments_name_id ON department.departments (name, id);
@@ -0,0 +1,2 @@
+-- Optimistic-lock version; also the source of strong ETags for conditional GET/PUT/PATCH.
+ALTER TABLE department.departments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
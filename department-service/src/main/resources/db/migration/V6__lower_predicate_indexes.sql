@@ -0,0 +1,11 @@
+-- Expression indexes matching the list filters in DepartmentSpecifications, so each predicate has an index:
+--   codeEquals    lower(code) = ?     -> idx_departments_code_lower (btree; uk_department_code is on the raw value)
+--   nameContains  lower(name) LIKE ?  -> idx_departments_name_trgm (pg_trgm)
+--   after (keyset)                    -> idx_departments_name_id (V4) and the primary key
+-- The extension lives in public so the operators resolve on any search_path.
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+
+CREATE INDEX IF NOT EXISTS idx_departments_code_lower ON department.departments (lower(code));
+
+CREATE INDEX IF NOT EXISTS idx_departments_name_trgm
+    ON department.departments USING gin (lower(name) public.gin_trgm_ops);
@@ -0,0 +1,214 @@
+package com.example.employee.client;
+
+import com.example.employee.dto.DepartmentDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded in-process cache in front of {@link DepartmentClient}.
+ * <p>
+ * Entries are fresh for {@code ttl}; after that they are reloaded, but kept for another
+ * {@code max-stale} so they can still be served while DEPARTMENT-SERVICE is failing
+ * (including when the {@code departmentClient} circuit breaker is open and the fallback answers).
+ * Ids the downstream does not know are cached as negative entries for {@code negative-ttl}.
+ * Concurrent misses for the same id share a single in-flight load.
+ * <p>
+ * Metrics: {@code departments.cache.requests{result=hit|miss|stale}}, {@code departments.cache.size},
+ * {@code departments.cache.evictions} and {@code departments.cache.load.failures}, one per batch lookup
+ * that failed (an exception, or the client fallback's null).
+ */
+@Slf4j
+@Component
+public class DepartmentCache {
+
+    static final int BATCH_SIZE = 200;
+
+    private final DepartmentClient client;
+    private final Cache<Long, Entry> cache;
+    private final ConcurrentMap<Long, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleServed;
+    private final Counter evictions;
+    private final Counter loadFailures;
+
+    public DepartmentCache(DepartmentClient client,
+                           MeterRegistry meterRegistry,
+                           @Value("${departments.cache.ttl:5m}") Duration ttl,
+                           @Value("${departments.cache.negative-ttl:30s}") Duration negativeTtl,
+                           @Value("${departments.cache.max-stale:1h}") Duration maxStale,
+                           @Value("${departments.cache.max-size:10000}") long maxSize) {
+        this.client = client;
+        this.ttlNanos = ttl.toNanos();
+        this.hits = Counter.builder("departments.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("departments.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.staleServed = Counter.builder("departments.cache.requests").tag("result", "stale").register(meterRegistry);
+        this.evictions = Counter.builder("departments.cache.evictions").register(meterRegistry);
+        this.loadFailures = Counter.builder("departments.cache.load.failures").register(meterRegistry);
+
+        long positiveLifetime = ttl.plus(maxStale).toNanos();
+        long negativeLifetime = negativeTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Long key, Entry value, long currentTime) {
+                        return value.value() == null ? negativeLifetime : positiveLifetime;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long key, Entry value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long key, Entry value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .evictionListener((Long key, Entry value, RemovalCause cause) -> evictions.increment())
+                .build();
+        Gauge.builder("departments.cache.size", cache, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    /**
+     * The cached part of {@link #getAll}, without any downstream call: departments for the ids cached and
+     * still fresh (unknown ids simply absent), and in {@code missing} the ids {@link #getAll} would have to load.
+     */
+    public Present getAllPresent(Collection<Long> ids) {
+        Map<Long, DepartmentDTO> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (id == null) continue;
+            Entry e = cache.getIfPresent(id);
+            if (fresh(e, now)) {
+                hits.increment();
+                if (e.value() != null) result.put(id, e.value());
+            } else {
+                missing.add(id);   // counted as a miss by getAll, if the caller goes on to load it
+            }
+        }
+        return new Present(result, missing);
+    }
+
+    /**
+     * Departments for the given ids. Ids the downstream does not know are simply absent; ids that could
+     * not be looked up right now (downstream failing, nothing stale to fall back to) are in {@code failed}.
+     */
+    public Lookup getAll(Collection<Long> ids) {
+        Map<Long, DepartmentDTO> result = new HashMap<>();
+        Set<Long> failed = new HashSet<>();
+        Map<Long, Entry> stale = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.nanoTime();
+
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (id == null) continue;
+            Entry e = cache.getIfPresent(id);
+            if (fresh(e, now)) {
+                hits.increment();
+                if (e.value() != null) result.put(id, e.value());
+            } else {
+                misses.increment();
+                if (e != null) stale.put(id, e);
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) return new Lookup(result, failed);
+
+        // Single-flight: only the caller that registers the future for an id loads it
+        Map<Long, CompletableFuture<Entry>> owned = new LinkedHashMap<>();
+        Map<Long, CompletableFuture<Entry>> pending = new HashMap<>();
+        for (Long id : missing) {
+            CompletableFuture<Entry> mine = new CompletableFuture<>();
+            CompletableFuture<Entry> existing = inFlight.putIfAbsent(id, mine);
+            if (existing == null) owned.put(id, mine);
+            pending.put(id, existing == null ? mine : existing);
+        }
+        if (!owned.isEmpty()) load(owned);
+
+        pending.forEach((id, future) -> {
+            Entry e = future.join();
+            if (e == null) {
+                // downstream unavailable: fall back to the last known value if we still have one
+                Entry old = stale.get(id);
+                if (old != null && old.value() != null) {
+                    staleServed.increment();
+                    result.put(id, old.value());
+                } else {
+                    failed.add(id);
+                }
+            } else if (e.value() != null) {
+                result.put(id, e.value());
+            }
+        });
+        return new Lookup(result, failed);
+    }
+
+    private void load(Map<Long, CompletableFuture<Entry>> owned) {
+        List<Long> ids = new ArrayList<>(owned.keySet());
+        try {
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+                List<DepartmentDTO> found = null;
+                try {
+                    found = client.getDepartments(chunk);
+                } catch (Exception ex) {
+                    log.warn("Department batch lookup failed for ids={}: {}", chunk, ex.toString());
+                }
+                if (found == null) {
+                    loadFailures.increment();
+                    chunk.forEach(id -> complete(id, owned.get(id), null));
+                    continue;
+                }
+                Map<Long, DepartmentDTO> byId = new HashMap<>();
+                found.forEach(d -> byId.putIfAbsent(d.getId(), d));
+                long loadedAt = System.nanoTime();
+                for (Long id : chunk) {
+                    Entry e = new Entry(byId.get(id), loadedAt);
+                    cache.put(id, e);
+                    complete(id, owned.get(id), e);
+                }
+            }
+        } finally {
+            // never leave waiters hanging, whatever happened above
+            owned.forEach((id, f) -> complete(id, f, null));
+        }
+    }
+
+    private boolean fresh(Entry e, long now) {
+        return e != null && (e.value() == null || now - e.loadedAt() < ttlNanos);
+    }
+
+    private void complete(Long id, CompletableFuture<Entry> future, Entry entry) {
+        if (future.complete(entry)) {
+            inFlight.remove(id, future);
+        }
+    }
+
+    /** Result of {@link #getAll}: departments found, and ids whose lookup failed (as opposed to unknown ids). */
+    public record Lookup(Map<Long, DepartmentDTO> departments, Set<Long> failed) {}
+
+    /** Result of {@link #getAllPresent}: departments served from the cache, and the ids left to load. */
+    public record Present(Map<Long, DepartmentDTO> departments, List<Long> missing) {}
+
+    /** A cached lookup result; {@code value == null} marks an id the downstream does not know. */
+    record Entry(DepartmentDTO value, long loadedAt) {}
+}
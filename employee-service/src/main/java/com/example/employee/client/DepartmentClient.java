@@ -4,6 +4,10 @@ import com.example.employee.dto.DepartmentDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(
         name = "DEPARTMENT-SERVICE",
@@ -15,4 +19,8 @@ public interface DepartmentClient {
 
     @GetMapping("/{id}")
     DepartmentDTO getDepartment(@PathVariable("id") Long id);
+
+    // One round trip for a whole page; ids unknown to DEPARTMENT-SERVICE are simply absent.
+    @GetMapping("/batch")
+    List<DepartmentDTO> getDepartments(@RequestParam("ids") Collection<Long> ids);
 }
@@ -6,6 +6,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.cloud.openfeign.FallbackFactory;
 
+import java.util.Collection;
+import java.util.List;
+
 @Slf4j
 @Component
 public class DepartmentClientFallback implements DepartmentClient {
@@ -25,6 +28,13 @@ public class DepartmentClientFallback implements DepartmentClient {
         return null;
     }
 
+    @Override
+    public List<DepartmentDTO> getDepartments(Collection<Long> ids) {
+        String msg = (cause != null) ? cause.toString() : "unknown";
+        log.warn("DepartmentClient fallback for ids={} due to {}", ids, msg);
+        return null; // null = lookup failed, as opposed to an empty result
+    }
+
     @Component
     @RequiredArgsConstructor
     public static class Factory implements FallbackFactory<DepartmentClient> {
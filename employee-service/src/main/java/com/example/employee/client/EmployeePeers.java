@@ -0,0 +1,96 @@
+package com.example.employee.client;
+
+import com.example.employee.dto.CacheInvalidation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Fire-and-forget fan-out of near-cache invalidations to the other EMPLOYEE-SERVICE instances
+ * registered in Eureka. Delivery is best effort: a lost message is covered by the near cache's TTL,
+ * which is the upper bound on staleness.
+ */
+@Slf4j
+@Component
+public class EmployeePeers {
+
+    public static final String INVALIDATE_PATH = "/internal/cache/employees/invalidate";
+
+    private final DiscoveryClient discovery;
+    private final ObjectProvider<Registration> registration;
+    private final ObjectMapper objectMapper;
+    private final String serviceId;
+    private final Duration timeout;
+    private final HttpClient http;
+
+    private final Counter delivered;
+    private final Counter failed;
+
+    public EmployeePeers(DiscoveryClient discovery,
+                         ObjectProvider<Registration> registration,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${spring.application.name}") String serviceId,
+                         @Value("${employees.near-cache.broadcast-timeout:1s}") Duration timeout) {
+        this.discovery = discovery;
+        this.registration = registration;
+        this.objectMapper = objectMapper;
+        this.serviceId = serviceId;
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.delivered = Counter.builder("employees.near-cache.broadcasts").tag("result", "delivered").register(meterRegistry);
+        this.failed = Counter.builder("employees.near-cache.broadcasts").tag("result", "failed").register(meterRegistry);
+    }
+
+    /** Id of this instance as registered in Eureka (host:name:port), or null when not registered. */
+    public String selfId() {
+        Registration self = registration.getIfAvailable();
+        return self == null ? null : self.getInstanceId();
+    }
+
+    public void broadcast(List<Long> ids, List<String> emails) {
+        String self = selfId();
+        List<ServiceInstance> peers = discovery.getInstances(serviceId).stream()
+                .filter(i -> self == null || !self.equals(i.getInstanceId()))
+                .toList();
+        if (peers.isEmpty()) return;
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(new CacheInvalidation(ids, emails, System.currentTimeMillis(), self));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+        for (ServiceInstance peer : peers) {
+            HttpRequest request = HttpRequest.newBuilder(peer.getUri().resolve(URI.create(INVALIDATE_PATH)))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, ex) -> {
+                if (ex == null && response.statusCode() < 300) {
+                    delivered.increment();
+                } else {
+                    failed.increment();
+                    log.warn("Near-cache invalidation to {} failed: {}", peer.getInstanceId(),
+                            ex != null ? ex.toString() : "HTTP " + response.statusCode());
+                }
+            });
+        }
+    }
+}
@@ -12,6 +12,7 @@ import lombok.Data;
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Employee {
     @Id
+    // column default (employees_id_seq); bulk inserts reserve ids up front, see EmployeeRepositoryCustom
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     @Column(name = "first_name", nullable = false, length = 120)
@@ -22,4 +23,8 @@ public class Employee {
     private String email;
     @Column(name = "department_id")
     private Long departmentId;
+    // bumped on every update; source of the resource ETag (see V10 migration)
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -22,6 +22,7 @@ public class IdempotencyRecord {
     @Column(name="employee_id")
     private Long employeeId;
 
+    @Builder.Default
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 }
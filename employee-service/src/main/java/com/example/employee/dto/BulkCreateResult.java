@@ -0,0 +1,16 @@
+package com.example.employee.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// one entry of the 207 bulkCreate response: {"status":"CREATED","employee":{...}} or {"status":"ERROR","error":"..."}
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkCreateResult(String status, EmployeeDTO employee, String error) {
+
+    public static BulkCreateResult created(EmployeeDTO employee) {
+        return new BulkCreateResult("CREATED", employee, null);
+    }
+
+    public static BulkCreateResult error(String error) {
+        return new BulkCreateResult("ERROR", null, error);
+    }
+}
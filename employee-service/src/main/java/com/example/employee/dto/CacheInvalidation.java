@@ -0,0 +1,11 @@
+package com.example.employee.dto;
+
+import java.util.List;
+
+/** Near-cache invalidation sent to peer instances after a committed write. */
+public record CacheInvalidation(
+        List<Long> ids,
+        List<String> emails,
+        long sentAtMillis,      // sender wall clock; the receiver records the difference as invalidation lag
+        String origin           // sender instance id
+) {}
@@ -0,0 +1,10 @@
+package com.example.employee.dto;
+
+import java.util.List;
+
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        String nextCursor,
+        boolean last
+) {}
@@ -1,5 +1,8 @@
 package com.example.employee.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -27,4 +30,13 @@ public class EmployeeDTO {
 
     private Long departmentId;
     private DepartmentDTO department; // response enrichment
+
+    // true when the department could not be resolved before the enrichment deadline
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Boolean partial;
+
+    // row version behind the ETag header; not part of the body
+    @JsonIgnore
+    private Long version;
 }
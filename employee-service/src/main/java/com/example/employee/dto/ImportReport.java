@@ -0,0 +1,14 @@
+package com.example.employee.dto;
+
+import java.util.List;
+
+public record ImportReport(
+        String importId,
+        long received,
+        long imported,
+        long rejected,
+        List<RowError> errors,      // rejected rows with the lowest line numbers, in line order
+        boolean errorsTruncated     // true when more rows were rejected than are listed
+) {
+    public record RowError(long line, String email, String error) {}
+}
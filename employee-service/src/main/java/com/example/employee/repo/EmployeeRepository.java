@@ -3,28 +3,49 @@ package com.example.employee.repo;
 import com.example.employee.domain.Employee;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long>, JpaSpecificationExecutor<Employee> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, JpaSpecificationExecutor<Employee>,
+        EmployeeRepositoryCustom {
     boolean existsByEmail(String email);
     boolean existsByEmailAndIdNot(String email, Long id);
+    boolean existsByDepartmentId(Long departmentId);   // LIMIT 1 probe on idx_employees_department_id
 
-    // quick “search” across name/email (case-insensitive)
-    List<Employee> findTop50ByFirstNameIgnoreCaseContainingOrLastNameIgnoreCaseContainingOrEmailIgnoreCaseContaining(
-            String fn, String ln, String email);
+    // set-based uniqueness check for bulk inserts (one IN query instead of one exists query per row)
+    @Query("select e.email from Employee e where e.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 
-    // stats by department
-    interface DeptCount {
+    // conditional requests: one primary-key lookup instead of loading and enriching the row
+    @Query("select e.version as version, e.departmentId as departmentId from Employee e where e.id = :id")
+    Optional<VersionRef> findVersionById(@Param("id") Long id);
+
+    interface VersionRef {
+        Long getVersion();
         Long getDepartmentId();
-        Long getCount();
     }
 
-    @Query(value = """
-            SELECT department_id AS departmentId, COUNT(*) AS count
-            FROM employee.employees
-            GROUP BY department_id
-            """, nativeQuery = true)
-    List<DeptCount> countsByDepartment();
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(EmployeeView.SELECT + " where e.id = :id")
+    Optional<EmployeeView> findViewById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(EmployeeView.SELECT + " where e.email = :email")
+    Optional<EmployeeView> findViewByEmail(@Param("email") String email);
+
+    // server-side cursor for exports: rows arrive in fetch-size batches as projections, nothing is managed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(EmployeeView.SELECT + " order by e.id")
+    Stream<EmployeeView> streamAllViews();
 }
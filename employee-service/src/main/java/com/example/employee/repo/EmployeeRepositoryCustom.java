@@ -0,0 +1,23 @@
+package com.example.employee.repo;
+
+import com.example.employee.domain.Employee;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface EmployeeRepositoryCustom {
+    // Specification queries projected to EmployeeView (read-only, only the needed columns)
+    Page<EmployeeView> findViews(Specification<Employee> spec, Pageable pageable);
+
+    // (id, version, departmentId) of the same page as findViews; cheap input for list ETags
+    Page<Object[]> findVersions(Specification<Employee> spec, Pageable pageable);
+
+    // LIMIT-only query (no OFFSET, no COUNT) used by keyset pagination
+    List<EmployeeView> findViewSlice(Specification<Employee> spec, Sort sort, int limit);
+
+    // inserts new employees as JDBC batches, ids taken from employees_id_seq in one round trip
+    void insertAll(List<Employee> employees);
+}
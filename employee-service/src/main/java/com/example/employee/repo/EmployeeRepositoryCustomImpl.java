@@ -0,0 +1,118 @@
+package com.example.employee.repo;
+
+import com.example.employee.domain.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiFunction;
+
+class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    private static final int INSERT_BATCH_SIZE = 50;
+    private static final String NEXT_IDS_SQL =
+            "SELECT nextval('employee.employees_id_seq') FROM generate_series(1, ?)";
+    private static final String INSERT_SQL = """
+            INSERT INTO employee.employees (id, first_name, last_name, email, department_id, version)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final JdbcTemplate jdbc;
+
+    EmployeeRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Page<EmployeeView> findViews(Specification<Employee> spec, Pageable pageable) {
+        return page(viewQuery(spec, pageable.getSort()), spec, pageable);
+    }
+
+    @Override
+    public Page<Object[]> findVersions(Specification<Employee> spec, Pageable pageable) {
+        TypedQuery<Object[]> query = query(spec, pageable.getSort(), Object[].class,
+                (cb, root) -> cb.array(root.get("id"), root.get("version"), root.get("departmentId")));
+        return page(query, spec, pageable);
+    }
+
+    @Override
+    public List<EmployeeView> findViewSlice(Specification<Employee> spec, Sort sort, int limit) {
+        return viewQuery(spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public void insertAll(List<Employee> employees) {
+        if (employees.isEmpty()) return;
+        // one round trip reserves every id from the column's own sequence; its step stays 1, so the
+        // column default (COPY import, SQL seeds) and these ids never skip or collide
+        Iterator<Long> ids = jdbc.queryForList(NEXT_IDS_SQL, Long.class, employees.size()).iterator();
+        for (Employee e : employees) {
+            e.setId(ids.next());
+            e.setVersion(0L);
+        }
+        // reWriteBatchedInserts turns each batch into one multi-row INSERT
+        jdbc.batchUpdate(INSERT_SQL, employees, INSERT_BATCH_SIZE, (ps, e) -> {
+            ps.setLong(1, e.getId());
+            ps.setString(2, e.getFirstName());
+            ps.setString(3, e.getLastName());
+            ps.setString(4, e.getEmail());
+            ps.setObject(5, e.getDepartmentId());
+            ps.setLong(6, e.getVersion());
+        });
+    }
+
+    private <R> Page<R> page(TypedQuery<R> query, Specification<Employee> spec, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        // the count query is skipped when the first page is already the last one
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    private TypedQuery<EmployeeView> viewQuery(Specification<Employee> spec, Sort sort) {
+        return query(spec, sort, EmployeeView.class, (cb, root) -> cb.construct(EmployeeView.class,
+                root.get("id"), root.get("firstName"), root.get("lastName"), root.get("email"), root.get("departmentId"),
+                root.get("version")));
+    }
+
+    private <R> TypedQuery<R> query(Specification<Employee> spec, Sort sort, Class<R> type,
+                                    BiFunction<CriteriaBuilder, Root<Employee>, Selection<? extends R>> selection) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<R> cq = cb.createQuery(type);
+        Root<Employee> root = cq.from(Employee.class);
+        cq.select(selection.apply(cb, root));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, cq, cb);
+        if (predicate != null) cq.where(predicate);
+        if (sort.isSorted()) cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return em.createQuery(cq).setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    private long count(Specification<Employee> spec) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Employee> root = cq.from(Employee.class);
+        cq.select(cb.count(root));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, cq, cb);
+        if (predicate != null) cq.where(predicate);
+        return em.createQuery(cq).getSingleResult();
+    }
+}
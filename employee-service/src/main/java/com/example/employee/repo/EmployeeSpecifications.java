@@ -1,6 +1,8 @@
 package com.example.employee.repo;
 
 import com.example.employee.domain.Employee;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
 public final class EmployeeSpecifications {
@@ -17,4 +19,20 @@ public final class EmployeeSpecifications {
     public static Specification<Employee> departmentIdEquals(Long departmentId) {
         return (root, q, cb) -> departmentId == null ? null : cb.equal(root.get("departmentId"), departmentId);
     }
+
+    // keyset predicate: rows strictly after the cursor in (field, id) order
+    public static Specification<Employee> after(KeysetCursor cursor) {
+        return (root, q, cb) -> {
+            if (cursor == null) return null;
+            boolean asc = cursor.direction().isAscending();
+            Path<Long> id = root.get("id");
+            Predicate idAfter = asc ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+            if ("id".equals(cursor.field())) return idAfter;
+            Path<String> key = root.get(cursor.field());
+            Predicate keyAfter = asc ? cb.greaterThan(key, cursor.value()) : cb.lessThan(key, cursor.value());
+            // key >= v AND (key > v OR id > c): the leading bound is what the (field, id) index can seek on
+            Predicate keyFrom = asc ? cb.greaterThanOrEqualTo(key, cursor.value()) : cb.lessThanOrEqualTo(key, cursor.value());
+            return cb.and(keyFrom, cb.or(keyAfter, idAfter));
+        };
+    }
 }
@@ -0,0 +1,20 @@
+package com.example.employee.repo;
+
+import com.example.employee.domain.Employee;
+
+/**
+ * Read-side projection of an employee: only the columns responses need, built straight from the
+ * result set (constructor expression), so no managed entity or dirty-checking snapshot is created.
+ */
+public record EmployeeView(Long id, String firstName, String lastName, String email, Long departmentId,
+                           Long version) {
+
+    // JPQL constructor expression selecting exactly these columns, in this order
+    public static final String SELECT = "select new com.example.employee.repo.EmployeeView("
+            + "e.id, e.firstName, e.lastName, e.email, e.departmentId, e.version) from Employee e";
+
+    public static EmployeeView of(Employee e) {
+        return new EmployeeView(e.getId(), e.getFirstName(), e.getLastName(), e.getEmail(), e.getDepartmentId(),
+                e.getVersion());
+    }
+}
@@ -2,9 +2,34 @@ package com.example.employee.repo;
 
 import com.example.employee.domain.IdempotencyRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.Optional;
 
 public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
     Optional<IdempotencyRecord> findByKeyValue(String keyValue);
+
+    // one bounded batch per call; SKIP LOCKED keeps the sweeper out of the way of live requests
+    @Modifying
+    @Query(value = """
+            DELETE FROM employee.idempotency_keys
+            WHERE id IN (SELECT id FROM employee.idempotency_keys
+                         WHERE created_at < :cutoff
+                         ORDER BY created_at
+                         LIMIT :batchSize
+                         FOR UPDATE SKIP LOCKED)
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+
+    // runs at once, unlike delete(entity): the caller may insert the same key next, and Hibernate
+    // flushes inserts before deletes, so a queued delete would trip uk_idem_key
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.createdAt < :cutoff")
+    int deleteIfExpired(@Param("id") Long id, @Param("cutoff") Instant cutoff);
+
+    @Query("select min(r.createdAt) from IdempotencyRecord r")
+    Optional<Instant> findOldestCreatedAt();
 }
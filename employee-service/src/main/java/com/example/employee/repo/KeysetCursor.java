@@ -0,0 +1,29 @@
+package com.example.employee.repo;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a keyset page: the sort key, its direction and value, plus the id tie-breaker.
+ * Clients only ever see the opaque {@link #encode()} form.
+ */
+public record KeysetCursor(String field, Sort.Direction direction, String value, Long id) {
+
+    public String encode() {
+        String raw = field + "|" + (direction.isAscending() ? "A" : "D") + "|" + id + "|" + (value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            Sort.Direction dir = "D".equals(parts[1]) ? Sort.Direction.DESC : Sort.Direction.ASC;
+            return new KeysetCursor(parts[0], dir, parts[3], Long.valueOf(parts[2]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.employee.search;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.repo.EmployeeView;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Backend for {@code GET /employees/search}: returns the best matches for a free-text query,
+ * most relevant first. Selected with {@code employees.search.engine} ({@code postgres} or {@code memory});
+ * both engines return the same employees in the same order.
+ */
+public interface EmployeeSearchEngine {
+
+    // a run of 3 letters/digits yields a trigram the GIN index can look up; shorter '%q%' patterns read it all
+    Pattern SEARCHABLE = Pattern.compile("[\\p{L}\\p{N}]{3}");
+
+    /** Whether {@code query} is long enough to search; the caller answers anything shorter with no matches. */
+    static boolean searchable(String query) {
+        return query != null && SEARCHABLE.matcher(query).find();
+    }
+
+    // only called with searchable queries
+    List<EmployeeView> search(String query, int limit);
+
+    // write hooks for engines that keep their own index, applied once the write commits; database-backed
+    // engines ignore them
+    default void indexed(Employee employee) { }
+
+    default void removed(Long employeeId) { }
+
+    // called after set-based writes (e.g. imports) that bypass the per-entity hooks
+    default void reindex() { }
+}
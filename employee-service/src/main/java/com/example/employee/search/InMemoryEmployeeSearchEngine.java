@@ -0,0 +1,127 @@
+package com.example.employee.search;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.repo.EmployeeRepository;
+import com.example.employee.repo.EmployeeView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trigram index kept in the JVM, for tests and local runs that have no pg_trgm. It matches and ranks
+ * exactly like {@link PostgresEmployeeSearchEngine} (see {@link Trigrams}); the postings only narrow the
+ * candidates to employees sharing a trigram with the query.
+ * The index is loaded once at startup and then kept current through the service's write hooks, which
+ * apply once the write commits, so a rolled-back create or update never becomes searchable.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.search.engine", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryEmployeeSearchEngine implements EmployeeSearchEngine {
+
+    private static final Comparator<Hit> RANKING = Comparator.comparing(Hit::prefix).reversed()
+            .thenComparing(Comparator.comparing(Hit::similarity).reversed())
+            .thenComparing(h -> h.doc().id());
+
+    private final EmployeeRepository repository;
+
+    private final Map<Long, EmployeeView> docs = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reindex() {
+        docs.clear();
+        postings.clear();
+        repository.findAll().forEach(e -> index(EmployeeView.of(e)));
+    }
+
+    @Override
+    public List<EmployeeView> search(String query, int limit) {
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        // with the minimum query length, every substring match also shares the query's inner trigrams
+        Set<Long> candidates = new HashSet<>();
+        for (String trigram : Trigrams.of(q)) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) candidates.addAll(ids);
+        }
+        List<Hit> hits = new ArrayList<>();
+        for (Long id : candidates) {
+            EmployeeView doc = docs.get(id);
+            if (doc == null) continue;
+            String name = (doc.firstName() + " " + doc.lastName()).toLowerCase(Locale.ROOT);
+            String email = doc.email().toLowerCase(Locale.ROOT);
+            float similarity = Math.max(Trigrams.wordSimilarity(q, name), Trigrams.wordSimilarity(q, email));
+            if (name.contains(q) || email.contains(q) || similarity >= Trigrams.WORD_SIMILARITY_THRESHOLD) {
+                boolean prefix = doc.firstName().toLowerCase(Locale.ROOT).startsWith(q)
+                        || doc.lastName().toLowerCase(Locale.ROOT).startsWith(q)
+                        || email.startsWith(q);
+                hits.add(new Hit(doc, prefix, similarity));
+            }
+        }
+        return hits.stream().sorted(RANKING).limit(limit).map(Hit::doc).toList();
+    }
+
+    @Override
+    public void indexed(Employee employee) {
+        EmployeeView doc = EmployeeView.of(employee);
+        afterCommit(() -> index(doc));
+    }
+
+    @Override
+    public void removed(Long employeeId) {
+        afterCommit(() -> unindex(employeeId));
+    }
+
+    private synchronized void index(EmployeeView doc) {
+        EmployeeView current = docs.get(doc.id());
+        // hooks of two commits may run out of order; never replace a newer version
+        if (current != null && current.version() != null && doc.version() != null
+                && current.version() > doc.version()) return;
+        unindex(doc.id());
+        docs.put(doc.id(), doc);
+        for (String trigram : trigrams(doc)) {
+            postings.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(doc.id());
+        }
+    }
+
+    private synchronized void unindex(Long employeeId) {
+        EmployeeView old = docs.remove(employeeId);
+        if (old == null) return;
+        for (String trigram : trigrams(old)) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) {
+                ids.remove(employeeId);
+                if (ids.isEmpty()) postings.remove(trigram);
+            }
+        }
+    }
+
+    private static Set<String> trigrams(EmployeeView e) {
+        Set<String> trigrams = new HashSet<>(Trigrams.of(e.firstName() + " " + e.lastName()));
+        trigrams.addAll(Trigrams.of(e.email()));
+        return trigrams;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Hit(EmployeeView doc, boolean prefix, float similarity) { }
+}
@@ -0,0 +1,62 @@
+package com.example.employee.search;
+
+import com.example.employee.repo.EmployeeView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Trigram search backed by the pg_trgm GIN indexes from V5__employee_search_trgm.sql.
+ * Substring and fuzzy (word similarity) matches are both index-assisted, as long as the query has a
+ * trigram to look up (see {@link EmployeeSearchEngine#searchable}); results are ranked prefix matches
+ * first, then by trigram similarity.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.search.engine", havingValue = "postgres", matchIfMissing = true)
+@RequiredArgsConstructor
+public class PostgresEmployeeSearchEngine implements EmployeeSearchEngine {
+
+    private static final String SQL = """
+            SELECT e.id, e.first_name, e.last_name, e.email, e.department_id, e.version
+            FROM employee.employees e
+            WHERE lower(e.first_name || ' ' || e.last_name) LIKE :contains
+               OR lower(e.email) LIKE :contains
+               OR :q <% lower(e.first_name || ' ' || e.last_name)
+               OR :q <% lower(e.email)
+            ORDER BY (lower(e.first_name) LIKE :prefix
+                      OR lower(e.last_name) LIKE :prefix
+                      OR lower(e.email) LIKE :prefix) DESC,
+                     GREATEST(word_similarity(:q, lower(e.first_name || ' ' || e.last_name)),
+                              word_similarity(:q, lower(e.email))) DESC,
+                     e.id
+            LIMIT :limit
+            """;
+
+    private static final RowMapper<EmployeeView> ROW_MAPPER = (rs, i) -> new EmployeeView(
+            rs.getLong("id"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("email"),
+            rs.getObject("department_id", Long.class),
+            rs.getLong("version"));
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    @Override
+    public List<EmployeeView> search(String query, int limit) {
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        String literal = q.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        var params = new MapSqlParameterSource()
+                .addValue("q", q)
+                .addValue("contains", "%" + literal + "%")
+                .addValue("prefix", literal + "%")
+                .addValue("limit", limit);
+        return jdbc.query(SQL, params, ROW_MAPPER);
+    }
+}
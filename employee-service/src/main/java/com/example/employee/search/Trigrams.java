@@ -0,0 +1,96 @@
+package com.example.employee.search;
+
+import java.util.*;
+
+/**
+ * The trigram model of PostgreSQL's pg_trgm, so the in-memory engine matches and ranks like
+ * {@link PostgresEmployeeSearchEngine}: words are runs of letters and digits, each padded with two
+ * spaces in front and one behind, and {@link #wordSimilarity} follows pg_trgm's {@code word_similarity}.
+ */
+final class Trigrams {
+
+    // pg_trgm.word_similarity_threshold, the cut-off of the <% operator
+    static final double WORD_SIMILARITY_THRESHOLD = 0.6;
+
+    private Trigrams() { }
+
+    /** Trigrams of {@code text} in text order, duplicates kept. */
+    static List<String> of(String text) {
+        List<String> trigrams = new ArrayList<>();
+        int[] cps = text.toLowerCase(Locale.ROOT).codePoints().toArray();
+        int i = 0;
+        while (i < cps.length) {
+            if (!Character.isLetterOrDigit(cps[i])) { i++; continue; }
+            int start = i;
+            while (i < cps.length && Character.isLetterOrDigit(cps[i])) i++;
+            String word = "  " + new String(cps, start, i - start) + " ";
+            int[] padded = word.codePoints().toArray();
+            for (int j = 0; j + 3 <= padded.length; j++) trigrams.add(new String(padded, j, 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Greatest similarity between the trigrams of {@code query} and any continuous extent of the trigrams of
+     * {@code text}; a port of pg_trgm's {@code calc_word_similarity}, float arithmetic included, so ties
+     * and the threshold fall the same way as in the database.
+     */
+    static float wordSimilarity(String query, String text) {
+        Set<String> wanted = new HashSet<>(of(query));
+        List<String> trigrams = of(text);
+        if (wanted.isEmpty() || trigrams.isEmpty()) return 0f;
+
+        Map<String, Integer> ids = new HashMap<>();
+        int[] index = new int[trigrams.size()];
+        for (int i = 0; i < index.length; i++) index[i] = ids.computeIfAbsent(trigrams.get(i), t -> ids.size());
+        boolean[] found = new boolean[ids.size()];
+        ids.forEach((t, id) -> found[id] = wanted.contains(t));
+        int[] lastPos = new int[ids.size()];
+        Arrays.fill(lastPos, -1);
+
+        int queryLen = wanted.size();
+        int lower = -1, count = 0, extentLen = 0;
+        float best = 0f;
+        for (int i = 0; i < index.length; i++) {
+            int t = index[i];
+            if (lower >= 0 || found[t]) {
+                if (lastPos[t] < 0) {
+                    extentLen++;
+                    if (found[t]) count++;
+                }
+                lastPos[t] = i;
+            }
+            if (!found[t]) continue;
+
+            if (lower == -1) {
+                lower = i;
+                extentLen = 1;
+            }
+            // try every lower bound up to i and keep the most similar extent
+            float current = similarity(count, queryLen, extentLen);
+            int tmpCount = count, tmpLen = extentLen, prevLower = lower;
+            for (int l = lower; l <= i; l++) {
+                float candidate = similarity(tmpCount, queryLen, tmpLen);
+                if (candidate > current) {
+                    current = candidate;
+                    extentLen = tmpLen;
+                    lower = l;
+                    count = tmpCount;
+                }
+                if (lastPos[index[l]] == l) {
+                    tmpLen--;
+                    if (found[index[l]]) tmpCount--;
+                }
+            }
+            best = Math.max(best, current);
+            for (int l = prevLower; l < lower; l++) {
+                if (lastPos[index[l]] == l) lastPos[index[l]] = -1;
+            }
+        }
+        return best;
+    }
+
+    private static float similarity(int count, int len1, int len2) {
+        return (float) count / (float) (len1 + len2 - count);
+    }
+}
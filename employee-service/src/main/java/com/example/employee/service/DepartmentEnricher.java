@@ -0,0 +1,151 @@
+package com.example.employee.service;
+
+import com.example.employee.client.DepartmentCache;
+import com.example.employee.dto.DepartmentDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Resolves the departments for a set of employees: cached ids on the calling thread, the rest in parallel
+ * chunks on a bounded pool, under one deadline per call. Ids still unresolved when the deadline passes (or whose lookup was rejected or
+ * failed) are reported back instead of holding the request; loads that are still running keep going
+ * and warm {@link DepartmentCache} for the next caller.
+ * <p>
+ * Metrics: {@code employees.enrichment.failures{reason=timeout|rejected|error}} per failed chunk,
+ * {@code employees.enrichment.unresolved} per department id served partial, and
+ * {@code employees.enrichment.duration}, the time enrichment adds to a request.
+ */
+@Slf4j
+@Component
+public class DepartmentEnricher implements DisposableBean {
+
+    private final DepartmentCache departmentCache;
+    private final ThreadPoolExecutor executor;
+    private final long deadlineNanos;
+    private final int chunkSize;
+
+    private final Counter timeouts;
+    private final Counter rejections;
+    private final Counter errors;
+    private final Counter unresolvedIds;
+    private final Timer duration;
+
+    public DepartmentEnricher(DepartmentCache departmentCache,
+                              MeterRegistry meterRegistry,
+                              @Value("${employees.enrichment.deadline:1s}") Duration deadline,
+                              @Value("${employees.enrichment.chunk-size:50}") int chunkSize,
+                              @Value("${employees.enrichment.threads:16}") int threads,
+                              @Value("${employees.enrichment.queue-capacity:500}") int queueCapacity,
+                              @Value("${threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.departmentCache = departmentCache;
+        this.deadlineNanos = deadline.toNanos();
+        this.chunkSize = chunkSize;
+        ThreadFactory factory = virtualThreads
+                ? Thread.ofVirtual().name("enrich-", 0).factory()
+                : Thread.ofPlatform().daemon().name("enrich-", 0).factory();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.timeouts = failures(meterRegistry, "timeout");
+        this.rejections = failures(meterRegistry, "rejected");
+        this.errors = failures(meterRegistry, "error");
+        this.unresolvedIds = Counter.builder("employees.enrichment.unresolved").register(meterRegistry);
+        this.duration = Timer.builder("employees.enrichment.duration")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Result resolve(Collection<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) return new Result(Map.of(), Set.of());
+        long start = System.nanoTime();
+        long deadline = start + deadlineNanos;
+
+        // a warm page never touches the pool: only ids the cache cannot answer are handed to it
+        DepartmentCache.Present cached = departmentCache.getAllPresent(distinct);
+        Map<Long, DepartmentDTO> departments = new HashMap<>(cached.departments());
+        List<Long> missing = cached.missing();
+        if (missing.isEmpty()) {
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return new Result(departments, Set.of());
+        }
+
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Future<DepartmentCache.Lookup>> futures = new ArrayList<>();
+        for (int from = 0; from < missing.size(); from += chunkSize) {
+            List<Long> chunk = missing.subList(from, Math.min(from + chunkSize, missing.size()));
+            chunks.add(chunk);
+            try {
+                futures.add(executor.submit(() -> departmentCache.getAll(chunk)));
+            } catch (RejectedExecutionException ex) {
+                futures.add(null);
+            }
+        }
+
+        Set<Long> unresolved = new HashSet<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            List<Long> chunk = chunks.get(i);
+            Future<DepartmentCache.Lookup> future = futures.get(i);
+            if (future == null) {
+                rejections.increment();
+                log.warn("Department enrichment rejected (pool saturated) for {} ids", chunk.size());
+                unresolved.addAll(chunk);
+                continue;
+            }
+            try {
+                DepartmentCache.Lookup lookup = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                departments.putAll(lookup.departments());
+                if (!lookup.failed().isEmpty()) {
+                    // the cache swallows downstream errors; they come back as failed ids, not as an exception
+                    errors.increment();
+                    log.warn("Department enrichment failed for ids={}", lookup.failed());
+                    unresolved.addAll(lookup.failed());
+                }
+            } catch (TimeoutException ex) {
+                timeouts.increment();
+                log.warn("Department enrichment missed its deadline for ids={}", chunk);
+                unresolved.addAll(chunk);
+            } catch (ExecutionException ex) {
+                errors.increment();
+                log.warn("Department enrichment failed for ids={}: {}", chunk, ex.getCause().toString());
+                unresolved.addAll(chunk);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                unresolved.addAll(chunk);
+            }
+        }
+        unresolvedIds.increment(unresolved.size());
+        duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Result(departments, unresolved);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static Counter failures(MeterRegistry registry, String reason) {
+        return Counter.builder("employees.enrichment.failures").tag("reason", reason).register(registry);
+    }
+
+    /** Departments found by id, and the ids that could not be resolved before the deadline. */
+    public record Result(Map<Long, DepartmentDTO> departments, Set<Long> unresolved) {
+
+        public DepartmentDTO get(Long id) {
+            return id == null ? null : departments.get(id);
+        }
+
+        public boolean isPartial(Long id) {
+            return id != null && unresolved.contains(id);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.employee.service;
+
+import com.example.employee.dto.DeptCountDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-department employee counts kept in {@code employee.department_headcounts}, adjusted in the same
+ * transaction as every employee write, so {@code /stats} reads a handful of rows instead of grouping the
+ * whole employees table. {@link #reconcile()} rebuilds the counters from scratch as a safety net.
+ */
+@Slf4j
+@Component
+public class DepartmentHeadcounts {
+
+    private static final String ADJUST_SQL = """
+            INSERT INTO employee.department_headcounts (department_id, slot, headcount)
+            VALUES (?, ?, ?)
+            ON CONFLICT (department_id, slot)
+            DO UPDATE SET headcount = department_headcounts.headcount + EXCLUDED.headcount
+            """;
+
+    private static final String COUNTS_SQL = """
+            SELECT department_id, SUM(headcount) AS headcount
+            FROM employee.department_headcounts
+            GROUP BY department_id
+            HAVING SUM(headcount) <> 0
+            ORDER BY department_id NULLS LAST
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final int stripes;
+
+    public DepartmentHeadcounts(JdbcTemplate jdbc, @Value("${headcounts.stripes:8}") int stripes) {
+        this.jdbc = jdbc;
+        this.stripes = Math.max(1, stripes);
+    }
+
+    public void added(Long departmentId) {
+        adjust(Collections.singletonMap(departmentId, 1L));
+    }
+
+    public void removed(Long departmentId) {
+        adjust(Collections.singletonMap(departmentId, -1L));
+    }
+
+    public void moved(Long fromDepartmentId, Long toDepartmentId) {
+        if (Objects.equals(fromDepartmentId, toDepartmentId)) return;
+        Map<Long, Long> deltas = new HashMap<>();
+        deltas.put(fromDepartmentId, -1L);
+        deltas.put(toDepartmentId, 1L);
+        adjust(deltas);
+    }
+
+    /** Applies per-department deltas (null key = no department); must run inside the writing transaction. */
+    public void adjust(Map<Long, Long> deltas) {
+        // fixed order (nulls last) so concurrent multi-department updates cannot deadlock
+        List<Object[]> rows = deltas.entrySet().stream()
+                .filter(e -> e.getValue() != 0)
+                .sorted(Map.Entry.comparingByKey(Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(e -> new Object[] { e.getKey(), ThreadLocalRandom.current().nextInt(stripes), e.getValue() })
+                .toList();
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate(ADJUST_SQL, rows);
+    }
+
+    public List<DeptCountDTO> counts() {
+        return jdbc.query(COUNTS_SQL, (rs, i) -> new DeptCountDTO(
+                rs.getObject("department_id", Long.class), rs.getLong("headcount")));
+    }
+
+    /**
+     * Rebuilds all counters from the employees table. The EXCLUSIVE lock makes concurrent writers wait on
+     * their counter update, so no increment is lost or double counted while the rebuild runs.
+     */
+    @Transactional
+    @Scheduled(cron = "${headcounts.reconcile.cron:0 30 3 * * *}")
+    public void reconcile() {
+        jdbc.execute("LOCK TABLE employee.department_headcounts IN EXCLUSIVE MODE");
+        jdbc.update("DELETE FROM employee.department_headcounts");
+        int departments = jdbc.update("""
+                INSERT INTO employee.department_headcounts (department_id, slot, headcount)
+                SELECT department_id, 0, COUNT(*)
+                FROM employee.employees
+                GROUP BY department_id
+                """);
+        log.info("Reconciled headcounts for {} departments", departments);
+    }
+}
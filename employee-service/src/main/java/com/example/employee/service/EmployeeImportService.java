@@ -0,0 +1,288 @@
+package com.example.employee.service;
+
+import com.example.employee.dto.EmployeeDTO;
+import com.example.employee.dto.ImportReport;
+import com.example.employee.search.EmployeeSearchEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * High-volume import: the request body is read line by line, each row is validated and streamed into
+ * {@code employee.employee_import_staging} over the COPY protocol, then merged into {@code employee.employees}
+ * with set-based SQL. Only the (capped) error list is held in memory, never the payload.
+ */
+@Slf4j
+@Service
+public class EmployeeImportService {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private static final String COPY_SQL = """
+            COPY employee.employee_import_staging (import_id, line_no, first_name, last_name, email, department_id)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+
+    /*
+     * Merges staged rows, bumps the department headcounts by what was actually inserted and returns every
+     * staged row that was not inserted. Rejects come from the INSERT's own RETURNING, so an email committed
+     * concurrently is reported like any other conflict and received = imported + rejected always holds.
+     */
+    private static final String MERGE_SQL = """
+            WITH candidates AS (
+                SELECT DISTINCT ON (s.email) s.line_no, s.first_name, s.last_name, s.email, s.department_id
+                FROM employee.employee_import_staging s
+                WHERE s.import_id = ?
+                ORDER BY s.email, s.line_no
+            ), inserted AS (
+                INSERT INTO employee.employees (first_name, last_name, email, department_id)
+                SELECT first_name, last_name, email, department_id FROM candidates
+                ON CONFLICT (email) DO NOTHING
+                RETURNING email, department_id
+            ), counted AS (
+                INSERT INTO employee.department_headcounts (department_id, slot, headcount)
+                SELECT department_id, 0, COUNT(*) FROM inserted GROUP BY department_id
+                ON CONFLICT (department_id, slot)
+                DO UPDATE SET headcount = department_headcounts.headcount + EXCLUDED.headcount
+            )
+            SELECT s.line_no, s.email,
+                   CASE WHEN i.email IS NULL THEN 'Email already exists' ELSE 'Duplicate email in import' END AS reason
+            FROM employee.employee_import_staging s
+            JOIN candidates c ON c.email = s.email
+            LEFT JOIN inserted i ON i.email = s.email
+            WHERE s.import_id = ? AND (i.email IS NULL OR s.line_no <> c.line_no)
+            ORDER BY s.line_no
+            """;
+
+    private static final String CLEANUP_SQL = "DELETE FROM employee.employee_import_staging WHERE import_id = ?";
+
+    public enum Format { NDJSON, CSV }
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final Validator validator;
+    private final ObjectReader rowReader;
+    private final EmployeeSearchEngine searchEngine;
+
+    public EmployeeImportService(DataSource dataSource,
+                                 JdbcTemplate jdbc,
+                                 PlatformTransactionManager txManager,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 EmployeeSearchEngine searchEngine) {
+        this.dataSource = dataSource;
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.validator = validator;
+        this.rowReader = objectMapper.readerFor(EmployeeDTO.class);
+        this.searchEngine = searchEngine;
+    }
+
+    public ImportReport importEmployees(InputStream body, Format format) {
+        UUID importId = UUID.randomUUID();
+        ErrorCollector errors = new ErrorCollector();
+        Staged staged;
+        long imported;
+        try {
+            // COPY commits on its own, so no transaction stays open while a slow client is still uploading
+            try {
+                staged = copyToStaging(importId, body, format, errors);
+            } catch (IOException | SQLException ex) {
+                throw new IllegalStateException("Import failed: " + ex.getMessage(), ex);
+            }
+            long[] rejected = new long[1];
+            RowCallbackHandler reject = rs -> {
+                rejected[0]++;
+                errors.add(rs.getLong("line_no"), rs.getString("email"), rs.getString("reason"));
+            };
+            tx.executeWithoutResult(status -> jdbc.query(MERGE_SQL, reject, importId, importId));
+            imported = staged.rows() - rejected[0];
+        } finally {
+            jdbc.update(CLEANUP_SQL, importId);
+        }
+
+        if (imported > 0) searchEngine.reindex();
+        log.info("Import {} finished: received={}, imported={}, rejected={}",
+                importId, staged.received(), imported, errors.total);
+        return new ImportReport(importId.toString(), staged.received(), imported, errors.total,
+                errors.sorted(), errors.total > errors.rows.size());
+    }
+
+    /** Data rows read from the body, and how many of them passed validation into the staging table. */
+    private record Staged(long received, long rows) {}
+
+    // Streams valid rows into the staging table on an autocommit connection
+    private Staged copyToStaging(UUID importId, InputStream body, Format format, ErrorCollector errors)
+            throws IOException, SQLException {
+        Connection con = DataSourceUtils.getConnection(dataSource);
+        try {
+            return copyToStaging(con, importId, body, format, errors);
+        } finally {
+            DataSourceUtils.releaseConnection(con, dataSource);
+        }
+    }
+
+    private Staged copyToStaging(Connection con, UUID importId, InputStream body, Format format,
+                                 ErrorCollector errors) throws IOException, SQLException {
+        CopyIn copy = con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_BUFFER_BYTES + 1024);
+        long received = 0;
+        long rows = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            RowParser parser = format == Format.CSV ? new CsvRowParser(reader.readLine()) : this::parseJson;
+            long lineNo = format == Format.CSV ? 1 : 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                received++;
+                EmployeeDTO dto;
+                try {
+                    dto = parser.parse(line);
+                } catch (Exception ex) {
+                    errors.add(lineNo, null, "Malformed row");
+                    continue;
+                }
+                Set<ConstraintViolation<EmployeeDTO>> violations = validator.validate(dto);
+                if (!violations.isEmpty()) {
+                    errors.add(lineNo, dto.getEmail(), violations.stream()
+                            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining("; ")));
+                    continue;
+                }
+                writeCopyRow(buffer, importId, lineNo, dto);
+                rows++;
+                if (buffer.size() >= COPY_BUFFER_BYTES) {
+                    copy.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                    buffer.reset();
+                }
+            }
+            if (buffer.size() > 0) copy.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) copy.cancelCopy();
+        }
+        return new Staged(received, rows);
+    }
+
+    private EmployeeDTO parseJson(String line) throws IOException {
+        return rowReader.readValue(line);
+    }
+
+    private static void writeCopyRow(ByteArrayOutputStream out, UUID importId, long lineNo, EmployeeDTO dto) {
+        String row = importId + "," + lineNo + ","
+                + quote(dto.getFirstName()) + ","
+                + quote(dto.getLastName()) + ","
+                + quote(dto.getEmail()) + ","
+                + (dto.getDepartmentId() == null ? "" : dto.getDepartmentId()) + "\n";
+        out.writeBytes(row.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String quote(String v) {
+        return '"' + v.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        EmployeeDTO parse(String line) throws Exception;
+    }
+
+    /** Header-driven CSV rows (quoted fields allowed, no embedded newlines); unknown columns are ignored. */
+    private static final class CsvRowParser implements RowParser {
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvRowParser(String header) {
+            if (header == null) return;
+            List<String> names = split(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        @Override
+        public EmployeeDTO parse(String line) {
+            List<String> fields = split(line);
+            String dept = field(fields, "departmentid");
+            return EmployeeDTO.builder()
+                    .firstName(field(fields, "firstname"))
+                    .lastName(field(fields, "lastname"))
+                    .email(field(fields, "email"))
+                    .departmentId(dept == null || dept.isBlank() ? null : Long.valueOf(dept.trim()))
+                    .build();
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer i = columns.get(column);
+            return i == null || i >= fields.size() ? null : fields.get(i);
+        }
+
+        private static List<String> split(String line) {
+            List<String> out = new ArrayList<>();
+            StringBuilder cur = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') { cur.append('"'); i++; }
+                    else if (c == '"') quoted = false;
+                    else cur.append(c);
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    out.add(cur.toString());
+                    cur.setLength(0);
+                } else {
+                    cur.append(c);
+                }
+            }
+            out.add(cur.toString());
+            return out;
+        }
+    }
+
+    /**
+     * Keeps the {@value #MAX_REPORTED_ERRORS} row errors with the lowest line numbers and counts the rest.
+     * Parse errors and merge rejects arrive in two separate passes, so arrival order is not line order.
+     */
+    private static final class ErrorCollector {
+        private static final Comparator<ImportReport.RowError> BY_LINE =
+                Comparator.comparingLong(ImportReport.RowError::line);
+
+        // highest line on top, so it is the one dropped once the report is full
+        final PriorityQueue<ImportReport.RowError> rows = new PriorityQueue<>(BY_LINE.reversed());
+        long total;
+
+        void add(long line, String email, String error) {
+            total++;
+            rows.add(new ImportReport.RowError(line, email, error));
+            if (rows.size() > MAX_REPORTED_ERRORS) rows.poll();
+        }
+
+        List<ImportReport.RowError> sorted() {
+            List<ImportReport.RowError> sorted = new ArrayList<>(rows);
+            sorted.sort(BY_LINE);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.employee.service;
+
+import com.example.employee.client.EmployeePeers;
+import com.example.employee.repo.EmployeeView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Per-instance cache of {@link EmployeeView}s by id and by email.
+ * <p>
+ * Writes evict their keys after commit, locally and on every peer instance (see {@link EmployeePeers});
+ * entries also expire after {@code employees.near-cache.ttl}, so a lost invalidation cannot keep a replica
+ * stale for longer than that. Only rows that exist are cached, never misses, so uniqueness checks are
+ * never answered from here.
+ * <p>
+ * Metrics: Caffeine stats as {@code cache.gets{cache=employees.near.*}} plus
+ * {@code employees.near-cache.hit-ratio}, and {@code employees.near-cache.invalidation.lag}
+ * (sender commit to receiver eviction).
+ */
+@Component
+public class EmployeeNearCache {
+
+    private final EmployeePeers peers;
+    private final Cache<Long, EmployeeView> byId;        // null when disabled
+    private final Cache<String, EmployeeView> byEmail;   // null when disabled
+    private final Timer invalidationLag;
+
+    public EmployeeNearCache(EmployeePeers peers,
+                             MeterRegistry meterRegistry,
+                             @Value("${employees.near-cache.enabled:true}") boolean enabled,
+                             @Value("${employees.near-cache.ttl:30s}") Duration ttl,
+                             @Value("${employees.near-cache.max-size:10000}") long maxSize) {
+        this.peers = peers;
+        this.byId = enabled ? EmployeeNearCache.<Long>build(ttl, maxSize) : null;
+        this.byEmail = enabled ? EmployeeNearCache.<String>build(ttl, maxSize) : null;
+        this.invalidationLag = Timer.builder("employees.near-cache.invalidation.lag").register(meterRegistry);
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, byId, "employees.near.by-id");
+            CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "employees.near.by-email");
+            Gauge.builder("employees.near-cache.hit-ratio", this, EmployeeNearCache::hitRatio).register(meterRegistry);
+        }
+    }
+
+    public Optional<EmployeeView> byId(Long id, Function<Long, Optional<EmployeeView>> loader) {
+        if (byId == null) return loader.apply(id);
+        return Optional.ofNullable(byId.get(id, k -> loader.apply(k).orElse(null)));
+    }
+
+    public Optional<EmployeeView> byEmail(String email, Function<String, Optional<EmployeeView>> loader) {
+        if (byEmail == null) return loader.apply(email);
+        return Optional.ofNullable(byEmail.get(email, k -> loader.apply(k).orElse(null)));
+    }
+
+    /** Evicts the employee (and the emails it had or now has) here and on all peers once the write commits. */
+    public void evictAfterCommit(Long id, String... emails) {
+        if (byId == null) return;
+        List<Long> ids = id == null ? List.of() : List.of(id);
+        List<String> mails = Arrays.stream(emails).filter(Objects::nonNull).distinct().toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids, mails);
+                    peers.broadcast(ids, mails);
+                }
+            });
+        } else {
+            evict(ids, mails);
+            peers.broadcast(ids, mails);
+        }
+    }
+
+    /** Applies an invalidation received from a peer. */
+    public void evictFromPeer(Collection<Long> ids, Collection<String> emails, long sentAtMillis) {
+        if (byId == null) return;
+        evict(ids, emails);
+        invalidationLag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - sentAtMillis)));
+    }
+
+    private void evict(Collection<Long> ids, Collection<String> emails) {
+        for (Long id : ids) {
+            EmployeeView old = byId.getIfPresent(id);
+            if (old != null) byEmail.invalidate(old.email());
+            byId.invalidate(id);
+        }
+        byEmail.invalidateAll(emails);
+    }
+
+    private double hitRatio() {
+        long hits = byId.stats().hitCount() + byEmail.stats().hitCount();
+        long requests = byId.stats().requestCount() + byEmail.stats().requestCount();
+        return requests == 0 ? Double.NaN : (double) hits / requests;
+    }
+
+    private static <K> Cache<K, EmployeeView> build(Duration ttl, long maxSize) {
+        return Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    }
+}
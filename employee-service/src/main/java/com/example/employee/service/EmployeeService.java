@@ -1,82 +1,229 @@
 package com.example.employee.service;
 
-import com.example.employee.client.DepartmentClient;
 import com.example.employee.domain.Employee;
+import com.example.employee.dto.BulkCreateResult;
+import com.example.employee.dto.CursorPage;
 import com.example.employee.dto.DepartmentDTO;
 import com.example.employee.dto.EmployeeDTO;
 import com.example.employee.repo.EmployeeRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.example.employee.domain.IdempotencyRecord;
-import com.example.employee.repo.IdempotencyRecordRepository;
 import com.example.employee.repo.EmployeeSpecifications;
+import com.example.employee.repo.EmployeeView;
+import com.example.employee.repo.KeysetCursor;
+import com.example.employee.search.EmployeeSearchEngine;
+import com.example.employee.web.ErrorHandling.PreconditionFailedException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import com.example.employee.dto.UpdateEmployeeRequest;
 import com.example.employee.dto.PatchEmployeeRequest;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.DigestUtils;
 
+/**
+ * Public operations are timed as {@code employees.service{class,method}}, with a percentile histogram.
+ */
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Timed(value = "employees.service", histogram = true)
 public class EmployeeService {
 
+    // sort keys usable for keyset pagination (non-null columns; id is always the tie-breaker)
+    private static final Set<String> KEYSET_FIELDS = Set.of("lastName", "firstName", "email", "id");
+    private static final int SEARCH_LIMIT = 50;
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final EmployeeRepository repository;
-    private final DepartmentClient departmentClient;
-    private final IdempotencyRecordRepository idemRepo;
+    private final DepartmentEnricher departmentEnricher;
+    private final EmployeeNearCache nearCache;
+    private final IdempotencyStore idempotencyStore;
+    private final DepartmentHeadcounts headcounts;
+    private final EmployeeSearchEngine searchEngine;
+    private final Validator validator;
 
-    public List<EmployeeDTO> getAll() {
-        return repository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    /**
+     * Streams every employee to {@code sink} in chunks of {@value #EXPORT_CHUNK_SIZE}, enriching each chunk
+     * with one department lookup. Rows are projections, so nothing accumulates in the persistence context
+     * and memory use does not depend on table size. Must be consumed inside this (read-only) transaction.
+     */
+    public void export(ExportSink sink) throws IOException {
+        try (Stream<EmployeeView> rows = repository.streamAllViews()) {
+            List<EmployeeView> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+            for (Iterator<EmployeeView> it = rows.iterator(); it.hasNext(); ) {
+                chunk.add(it.next());
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    sink.accept(toDTOs(chunk));
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) sink.accept(toDTOs(chunk));
+        }
     }
 
     public Page<EmployeeDTO> list(Integer page, Integer size, Sort sort,
                                   String email, String lastNameContains, Long departmentId) {
         Pageable pageable = PageRequest.of(page, size, sort);
-        Specification<Employee> spec = Specification.where(EmployeeSpecifications.emailEquals(email))
-                .and(EmployeeSpecifications.lastNameContains(lastNameContains))
-                .and(EmployeeSpecifications.departmentIdEquals(departmentId));
+        Specification<Employee> spec = filters(email, lastNameContains, departmentId);
+
+        Page<EmployeeView> p = repository.findViews(spec, pageable);
+        return new PageImpl<>(toDTOs(p.getContent()), p.getPageable(), p.getTotalElements());
+    }
+
+    // Keyset pagination: seek past the cursor instead of OFFSET, and skip the COUNT query
+    public CursorPage<EmployeeDTO> listByCursor(int size, Sort sort, String cursor,
+                                                String email, String lastNameContains, Long departmentId) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        KeysetCursor after = (cursor == null || cursor.isBlank()) ? null : KeysetCursor.decode(cursor);
+        Sort.Order order = after != null
+                ? new Sort.Order(after.direction(), after.field())
+                : sort.stream().findFirst().orElse(Sort.Order.asc("lastName"));
+        if (!KEYSET_FIELDS.contains(order.getProperty())) {
+            throw new IllegalArgumentException("Cursor pagination supports sorting by " + KEYSET_FIELDS);
+        }
+        Sort keysetSort = "id".equals(order.getProperty())
+                ? Sort.by(order)
+                : Sort.by(order, new Sort.Order(order.getDirection(), "id"));
+        Specification<Employee> spec = filters(email, lastNameContains, departmentId)
+                .and(EmployeeSpecifications.after(after));
+
+        List<EmployeeView> rows = repository.findViewSlice(spec, keysetSort, size + 1);
+        boolean last = rows.size() <= size;
+        List<EmployeeView> content = last ? rows : rows.subList(0, size);
+        String next = null;
+        if (!last) {
+            EmployeeView tail = content.get(content.size() - 1);
+            next = new KeysetCursor(order.getProperty(), order.getDirection(),
+                    keysetValue(tail, order.getProperty()), tail.id()).encode();
+        }
+        return new CursorPage<>(toDTOs(content), size, next, last);
+    }
+
+    /**
+     * Validator for a loaded page of {@link #list}: a digest of the total and, per row, the id, the version
+     * and the embedded department (see {@link #representationVersion}).
+     */
+    public static String listVersion(Page<EmployeeDTO> page) {
+        return pageDigest(page.getTotalElements(), page.getContent().stream()
+                .map(e -> new Object[] { e.getId(), e.getVersion(), departmentTag(e.getDepartment()) })
+                .toList());
+    }
+
+    /**
+     * The same validator from an (id, version, departmentId)-only query plus the (usually cached) department
+     * lookup, without loading the rows. Costs an extra query (and COUNT), so only worth it when the client
+     * sent If-None-Match. Null when a department cannot be resolved: that page would be served partial.
+     */
+    public String listVersion(Integer page, Integer size, Sort sort,
+                              String email, String lastNameContains, Long departmentId) {
+        Page<Object[]> p = repository.findVersions(filters(email, lastNameContains, departmentId),
+                PageRequest.of(page, size, sort));
+        DepartmentEnricher.Result depts = departmentEnricher.resolve(
+                p.getContent().stream().map(row -> (Long) row[2]).toList());
+        if (!depts.unresolved().isEmpty()) return null;
+        return pageDigest(p.getTotalElements(), p.getContent().stream()
+                .map(row -> new Object[] { row[0], row[1], departmentTag(depts.get((Long) row[2])) })
+                .toList());
+    }
+
+    private static String pageDigest(long total, List<Object[]> rows) {
+        StringBuilder sb = new StringBuilder().append(total);
+        rows.forEach(row -> sb.append('|').append(row[0]).append(':').append(row[1]).append(':').append(row[2]));
+        return DigestUtils.md5DigestAsHex(sb.toString().getBytes());
+    }
 
-        Page<Employee> p = repository.findAll(spec, pageable);
-        return p.map(this::toDTO);
+    /**
+     * What an employee's ETag validates: its row version, plus a digest of the embedded department when
+     * there is one. department-service does not expose its version, so the department's fields are hashed.
+     */
+    public static String representationVersion(EmployeeDTO dto) {
+        return representationVersion(dto.getVersion(), dto.getDepartment());
+    }
+
+    private static String representationVersion(Long version, DepartmentDTO department) {
+        String tag = departmentTag(department);
+        return tag.isEmpty() ? String.valueOf(version) : version + "-" + tag;
+    }
+
+    /**
+     * The same validator from the row's version and department id plus the (usually cached) department
+     * lookup, without loading or enriching the employee. Null when the department cannot be resolved:
+     * that response would be partial and carry no ETag.
+     */
+    public String representationVersionOf(Long id, boolean enrich) {
+        EmployeeRepository.VersionRef row = repository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Employee not found"));
+        if (!enrich || row.getDepartmentId() == null) return String.valueOf(row.getVersion());
+        DepartmentEnricher.Result depts = departmentEnricher.resolve(List.of(row.getDepartmentId()));
+        if (!depts.unresolved().isEmpty()) return null;
+        return representationVersion(row.getVersion(), depts.get(row.getDepartmentId()));
+    }
+
+    private static String departmentTag(DepartmentDTO d) {
+        if (d == null) return "";
+        String fields = d.getId() + "|" + d.getName() + "|" + d.getDescription();
+        return DigestUtils.md5DigestAsHex(fields.getBytes(StandardCharsets.UTF_8)).substring(0, 12);
     }
 
     public EmployeeDTO getById(Long id) {
-        Employee e = repository.findById(id).orElseThrow(() -> new EntityNotFoundException("Employee not found"));
+        return getById(id, true);
+    }
+
+    // enrich=false skips the department-service call entirely (callers that compose the department themselves)
+    public EmployeeDTO getById(Long id, boolean enrich) {
+        EmployeeView e = nearCache.byId(id, repository::findViewById)
+                .orElseThrow(() -> new EntityNotFoundException("Employee not found"));
+        return enrich ? toDTO(e) : toDTO(e, null, false);
+    }
+
+    public boolean existsInDepartment(Long departmentId) {
+        return repository.existsByDepartmentId(departmentId);
+    }
+
+    public EmployeeDTO getByEmail(String email) {
+        EmployeeView e = nearCache.byEmail(email, repository::findViewByEmail)
+                .orElseThrow(() -> new EntityNotFoundException("Employee not found"));
         return toDTO(e);
     }
 
     @Transactional
     public EmployeeDTO create(EmployeeDTO dto, String idempotencyKey) {
-        if (repository.existsByEmail(dto.getEmail())) {
-            throw new IllegalArgumentException("Email already exists");
-        }
-
-        // Idempotency (optional)
-        String reqHash = DigestUtils.md5DigestAsHex((dto.getFirstName() + "|" + dto.getLastName() + "|" + dto.getEmail() + "|" + dto.getDepartmentId()).getBytes());
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            var existing = idemRepo.findByKeyValue(idempotencyKey).orElse(null);
-            if (existing != null) {
-                if (existing.getRequestHash().equals(reqHash)) {
-                    // Safe replay: return prior created resource if we have it
-                    if (existing.getEmployeeId() != null) {
-                        return getById(existing.getEmployeeId());
-                    }
-                    // fall-through; otherwise continue to create
-                } else {
-                    // Different request under same key -> conflict with guidance message
-                    throw new IllegalArgumentException("Idempotency key reuse with different payload");
+        // Idempotency (optional) - checked first so a replay is not rejected as a duplicate email
+        boolean keyed = idempotencyKey != null && !idempotencyKey.isBlank();
+        String reqHash = requestHash(dto);
+        IdempotencyRecord existing = keyed ? idempotencyStore.find(idempotencyKey).orElse(null) : null;
+        if (existing != null) {
+            if (existing.getRequestHash().equals(reqHash)) {
+                // Safe replay: return prior created resource if we have it
+                if (existing.getEmployeeId() != null) {
+                    return getById(existing.getEmployeeId());
                 }
+                // fall-through; otherwise continue to create
+            } else {
+                // Different request under same key -> conflict with guidance message
+                throw new IllegalArgumentException("Idempotency key reuse with different payload");
             }
         }
 
+        if (repository.existsByEmail(dto.getEmail())) {
+            throw new IllegalArgumentException("Email already exists");
+        }
+
         Employee e = Employee.builder()
                 .firstName(dto.getFirstName())
                 .lastName(dto.getLastName())
@@ -84,41 +231,109 @@ public class EmployeeService {
                 .departmentId(dto.getDepartmentId())
                 .build();
         e = repository.save(e);
+        headcounts.added(e.getDepartmentId());
+        searchEngine.indexed(e);
+        nearCache.evictAfterCommit(e.getId(), e.getEmail());
 
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            IdempotencyRecord rec = IdempotencyRecord.builder()
+        if (keyed) {
+            IdempotencyRecord rec = existing != null ? existing : IdempotencyRecord.builder()
                     .keyValue(idempotencyKey)
                     .requestHash(reqHash)
-                    .employeeId(e.getId())
                     .build();
-            idemRepo.save(rec);
+            rec.setEmployeeId(e.getId());
+            idempotencyStore.save(rec);
         }
         return toDTO(e);
     }
 
+    /**
+     * Creates all valid items in one transaction: one IN query for email conflicts, one query reserving
+     * the ids and JDBC-batched inserts. Results are returned in payload order.
+     */
     @Transactional
-    public EmployeeDTO put(Long id, UpdateEmployeeRequest req) {
+    public List<BulkCreateResult> bulkCreate(List<EmployeeDTO> payload) {
+        if (payload.isEmpty()) return List.of();
+        Set<String> emails = payload.stream()
+                .map(EmployeeDTO::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> taken = emails.isEmpty() ? new HashSet<>() : new HashSet<>(repository.findExistingEmails(emails));
+
+        BulkCreateResult[] results = new BulkCreateResult[payload.size()];
+        List<Employee> toInsert = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < payload.size(); i++) {
+            EmployeeDTO dto = payload.get(i);
+            Set<ConstraintViolation<EmployeeDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                results[i] = BulkCreateResult.error(violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+            if (!taken.add(dto.getEmail())) {
+                results[i] = BulkCreateResult.error("Email already exists");
+                continue;
+            }
+            toInsert.add(Employee.builder()
+                    .firstName(dto.getFirstName())
+                    .lastName(dto.getLastName())
+                    .email(dto.getEmail())
+                    .departmentId(dto.getDepartmentId())
+                    .build());
+            positions.add(i);
+        }
+
+        repository.insertAll(toInsert);
+        Map<Long, Long> deltas = new HashMap<>();
+        toInsert.forEach(e -> deltas.merge(e.getDepartmentId(), 1L, Long::sum));
+        headcounts.adjust(deltas);
+        toInsert.forEach(searchEngine::indexed);
+
+        List<EmployeeDTO> created = toDTOs(toInsert.stream().map(EmployeeView::of).toList());
+        for (int k = 0; k < created.size(); k++) {
+            results[positions.get(k)] = BulkCreateResult.created(created.get(k));
+        }
+        return Arrays.asList(results);
+    }
+
+    /** {@code ifMatch}: acceptable current versions (If-Match), or null when the request is unconditional. */
+    @Transactional
+    public EmployeeDTO put(Long id, UpdateEmployeeRequest req, Set<Long> ifMatch) {
         Employee e = repository.findById(id).orElseThrow(() -> new EntityNotFoundException("Employee not found"));
+        checkVersion(e, ifMatch);
+        nearCache.evictAfterCommit(id, e.getEmail(), req.getEmail());
         if (repository.existsByEmailAndIdNot(req.getEmail(), id)) {
             throw new IllegalArgumentException("Email already exists");
         }
         e.setFirstName(req.getFirstName());
         e.setLastName(req.getLastName());
         e.setEmail(req.getEmail());
+        headcounts.moved(e.getDepartmentId(), req.getDepartmentId());
         e.setDepartmentId(req.getDepartmentId());
+        flush(ifMatch);   // bumps the version, so the response carries the new ETag
+        searchEngine.indexed(e);
         return toDTO(e);
     }
 
     @Transactional
-    public EmployeeDTO patch(Long id, PatchEmployeeRequest req) {
+    public EmployeeDTO patch(Long id, PatchEmployeeRequest req, Set<Long> ifMatch) {
         Employee e = repository.findById(id).orElseThrow(() -> new EntityNotFoundException("Employee not found"));
+        checkVersion(e, ifMatch);
+        nearCache.evictAfterCommit(id, e.getEmail(), req.getEmail());
         if (req.getEmail() != null && repository.existsByEmailAndIdNot(req.getEmail(), id)) {
             throw new IllegalArgumentException("Email already exists");
         }
         if (req.getFirstName() != null) e.setFirstName(req.getFirstName());
         if (req.getLastName() != null)  e.setLastName(req.getLastName());
         if (req.getEmail() != null)     e.setEmail(req.getEmail());
-        if (req.getDepartmentId() != null) e.setDepartmentId(req.getDepartmentId());
+        if (req.getDepartmentId() != null) {
+            headcounts.moved(e.getDepartmentId(), req.getDepartmentId());
+            e.setDepartmentId(req.getDepartmentId());
+        }
+        flush(ifMatch);
+        searchEngine.indexed(e);
         return toDTO(e);
     }
 
@@ -126,33 +341,91 @@ public class EmployeeService {
     public void delete(Long id) {
         Employee e = repository.findById(id).orElseThrow(() -> new EntityNotFoundException("Employee not found"));
         repository.delete(e);
+        nearCache.evictAfterCommit(id, e.getEmail());
+        headcounts.removed(e.getDepartmentId());
+        searchEngine.removed(id);
     }
 
     public List<EmployeeDTO> search(String q) {
-        if (q == null || q.isBlank()) return List.of();
-        return repository
-                .findTop50ByFirstNameIgnoreCaseContainingOrLastNameIgnoreCaseContainingOrEmailIgnoreCaseContaining(q, q, q)
-                .stream().map(this::toDTO).toList();
+        if (!EmployeeSearchEngine.searchable(q)) return List.of();
+        return toDTOs(searchEngine.search(q, SEARCH_LIMIT));
     }
 
     public List<com.example.employee.dto.DeptCountDTO> stats() {
-        return repository.countsByDepartment().stream()
-                .map(dc -> new com.example.employee.dto.DeptCountDTO(dc.getDepartmentId(), dc.getCount()))
-                .toList();
+        return headcounts.counts();
     }
 
-    private EmployeeDTO toDTO(Employee e) {
-        DepartmentDTO dept = null;
-        if (e.getDepartmentId() != null) {
-            try { dept = departmentClient.getDepartment(e.getDepartmentId()); } catch (Exception ignored) { }
+    static Specification<Employee> filters(String email, String lastNameContains, Long departmentId) {
+        return Specification.where(EmployeeSpecifications.emailEquals(email))
+                .and(EmployeeSpecifications.lastNameContains(lastNameContains))
+                .and(EmployeeSpecifications.departmentIdEquals(departmentId));
+    }
+
+    // fingerprint of a create payload, compared on idempotent replays
+    static String requestHash(EmployeeDTO dto) {
+        return DigestUtils.md5DigestAsHex((dto.getFirstName() + "|" + dto.getLastName() + "|" + dto.getEmail() + "|" + dto.getDepartmentId()).getBytes());
+    }
+
+    private static void checkVersion(Employee e, Set<Long> ifMatch) {
+        if (ifMatch != null && !ifMatch.contains(e.getVersion())) {
+            throw new PreconditionFailedException("Employee was modified; current version does not match If-Match");
+        }
+    }
+
+    // a concurrent update that commits between checkVersion and the UPDATE also breaks the If-Match: 412, not 409
+    private void flush(Set<Long> ifMatch) {
+        try {
+            repository.flush();
+        } catch (OptimisticLockingFailureException ex) {
+            if (ifMatch == null) throw ex;
+            throw new PreconditionFailedException("Employee was modified concurrently; If-Match no longer holds");
         }
+    }
+
+    private static String keysetValue(EmployeeView e, String field) {
+        return switch (field) {
+            case "firstName" -> e.firstName();
+            case "lastName" -> e.lastName();
+            case "email" -> e.email();
+            default -> null;
+        };
+    }
+
+    private EmployeeDTO toDTO(Employee e) {
+        return toDTO(EmployeeView.of(e));
+    }
+
+    private EmployeeDTO toDTO(EmployeeView e) {
+        return toDTOs(List.of(e)).get(0);
+    }
+
+    // Enrich a whole page at once; departments not resolved by the deadline leave their employees partial
+    private List<EmployeeDTO> toDTOs(List<EmployeeView> employees) {
+        Set<Long> deptIds = employees.stream()
+                .map(EmployeeView::departmentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(TreeSet::new));
+        DepartmentEnricher.Result depts = departmentEnricher.resolve(deptIds);
+        return employees.stream()
+                .map(e -> toDTO(e, depts.get(e.departmentId()), depts.isPartial(e.departmentId())))
+                .toList();
+    }
+
+    static EmployeeDTO toDTO(EmployeeView e, DepartmentDTO dept, boolean partial) {
         return EmployeeDTO.builder()
-                .id(e.getId())
-                .firstName(e.getFirstName())
-                .lastName(e.getLastName())
-                .email(e.getEmail())
-                .departmentId(e.getDepartmentId())
+                .id(e.id())
+                .firstName(e.firstName())
+                .lastName(e.lastName())
+                .email(e.email())
+                .departmentId(e.departmentId())
                 .department(dept)
+                .partial(partial ? Boolean.TRUE : null)
+                .version(e.version())
                 .build();
     }
+
+    @FunctionalInterface
+    public interface ExportSink {
+        void accept(List<EmployeeDTO> chunk) throws IOException;
+    }
 }
@@ -0,0 +1,74 @@
+package com.example.employee.service;
+
+import com.example.employee.repo.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes idempotency keys past the retention window in small batches, one short transaction per batch,
+ * so the table and its unique index stop growing without long-held locks.
+ * <p>
+ * Metrics: {@code idempotency.sweeper.purged} (rows deleted) and {@code idempotency.sweeper.lag}
+ * (seconds the oldest remaining key is past its expiry; 0 when the sweeper keeps up).
+ */
+@Slf4j
+@Component
+public class IdempotencyKeySweeper {
+
+    private final IdempotencyRecordRepository repository;
+    private final IdempotencyStore store;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter purged;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public IdempotencyKeySweeper(IdempotencyRecordRepository repository,
+                                 IdempotencyStore store,
+                                 PlatformTransactionManager txManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${idempotency.sweeper.batch-size:1000}") int batchSize,
+                                 @Value("${idempotency.sweeper.max-batches-per-run:100}") int maxBatchesPerRun) {
+        this.repository = repository;
+        this.store = store;
+        this.tx = new TransactionTemplate(txManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.purged = Counter.builder("idempotency.sweeper.purged").register(meterRegistry);
+        Gauge.builder("idempotency.sweeper.lag", lagSeconds, AtomicLong::get)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.sweeper.interval:PT5M}",
+               initialDelayString = "${idempotency.sweeper.initial-delay:PT1M}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minus(store.retention());
+        long total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer deleted = tx.execute(status -> repository.deleteExpiredBatch(cutoff, batchSize));
+            int n = deleted == null ? 0 : deleted;
+            total += n;
+            purged.increment(n);
+            if (n < batchSize) break;
+        }
+        lagSeconds.set(repository.findOldestCreatedAt()
+                .map(oldest -> Math.max(0, Duration.between(oldest, cutoff).toSeconds()))
+                .orElse(0L));
+        if (total > 0) {
+            log.info("Purged {} expired idempotency keys (lag {}s)", total, lagSeconds.get());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.employee.service;
+
+import com.example.employee.domain.IdempotencyRecord;
+import com.example.employee.repo.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Idempotency keys with a retention window. Keys older than {@code idempotency.retention} are treated as
+ * absent (and removed on sight); the rest are purged by {@link IdempotencyKeySweeper}. An optional bounded
+ * front cache answers replays of recently seen keys without touching the table.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration retention;
+    private final Cache<String, IdempotencyRecord> cache;   // null when disabled
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${idempotency.retention:24h}") Duration retention,
+                            @Value("${idempotency.cache.enabled:true}") boolean cacheEnabled,
+                            @Value("${idempotency.cache.max-size:10000}") long cacheMaxSize) {
+        this.repository = repository;
+        this.retention = retention;
+        this.cache = cacheEnabled
+                ? Caffeine.newBuilder().maximumSize(cacheMaxSize).expireAfterWrite(retention).build()
+                : null;
+    }
+
+    public Duration retention() {
+        return retention;
+    }
+
+    public Optional<IdempotencyRecord> find(String key) {
+        IdempotencyRecord cached = cache == null ? null : cache.getIfPresent(key);
+        if (cached != null && !isExpired(cached)) {
+            return Optional.of(copy(cached));
+        }
+        Optional<IdempotencyRecord> found = repository.findByKeyValue(key);
+        if (found.isPresent() && isExpired(found.get())) {
+            // expired but not swept yet: free the key so it can be used again in this transaction
+            repository.deleteIfExpired(found.get().getId(), Instant.now().minus(retention));
+            if (cache != null) cache.invalidate(key);
+            return Optional.empty();
+        }
+        found.ifPresent(this::cacheAfterCommit);
+        return found;
+    }
+
+    public IdempotencyRecord save(IdempotencyRecord record) {
+        IdempotencyRecord saved = repository.save(record);
+        cacheAfterCommit(saved);
+        return saved;
+    }
+
+    private boolean isExpired(IdempotencyRecord r) {
+        return r.getCreatedAt() != null && r.getCreatedAt().isBefore(Instant.now().minus(retention));
+    }
+
+    // only remember keys whose transaction actually committed
+    private void cacheAfterCommit(IdempotencyRecord record) {
+        if (cache == null) return;
+        IdempotencyRecord snapshot = copy(record);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(snapshot.getKeyValue(), snapshot);
+                }
+            });
+        } else {
+            cache.put(snapshot.getKeyValue(), snapshot);
+        }
+    }
+
+    private static IdempotencyRecord copy(IdempotencyRecord r) {
+        return IdempotencyRecord.builder()
+                .id(r.getId())
+                .keyValue(r.getKeyValue())
+                .requestHash(r.getRequestHash())
+                .employeeId(r.getEmployeeId())
+                .createdAt(r.getCreatedAt())
+                .build();
+    }
+}
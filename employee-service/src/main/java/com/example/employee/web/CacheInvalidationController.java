@@ -0,0 +1,30 @@
+package com.example.employee.web;
+
+import com.example.employee.client.EmployeePeers;
+import com.example.employee.dto.CacheInvalidation;
+import com.example.employee.service.EmployeeNearCache;
+import io.swagger.v3.oas.annotations.Hidden;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Objects;
+
+// Instance-to-instance endpoint; not routed by the gateway (outside /api/v1/employees)
+@Hidden
+@RestController
+@RequiredArgsConstructor
+public class CacheInvalidationController {
+
+    private final EmployeeNearCache nearCache;
+
+    @PostMapping(EmployeePeers.INVALIDATE_PATH)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void invalidate(@RequestBody CacheInvalidation msg) {
+        nearCache.evictFromPeer(
+                Objects.requireNonNullElse(msg.ids(), List.of()),
+                Objects.requireNonNullElse(msg.emails(), List.of()),
+                msg.sentAtMillis());
+    }
+}
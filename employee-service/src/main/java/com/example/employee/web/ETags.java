@@ -0,0 +1,76 @@
+package com.example.employee.web;
+
+import com.example.employee.dto.EmployeeDTO;
+import com.example.employee.service.EmployeeService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Strong ETags derived from row versions, and parsing of {@code If-Match}. An employee's tag also carries
+ * a digest of the department embedded in its body, so a department rename changes it too.
+ */
+final class ETags {
+
+    private ETags() {}
+
+    static String of(EmployeeDTO dto) {
+        return ofVersion(EmployeeService.representationVersion(dto));
+    }
+
+    static String ofVersion(String representationVersion) {
+        return "\"v" + representationVersion + "\"";
+    }
+
+    static String ofPage(String digest) {
+        return "\"p-" + digest + "\"";
+    }
+
+    /** True when {@code If-None-Match} lists {@code etag} (weak comparison) or is {@code *}. */
+    static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.startsWith("W/")) t = t.substring(2);
+            if (t.equals("*") || t.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModifiedResponse(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    /**
+     * 200 with the ETag, unless the body is partial (some enrichment missed its deadline): a validator
+     * on it would let clients keep the incomplete body after the department becomes available.
+     */
+    static <T> ResponseEntity<T> ok(T body, String etag, boolean partial) {
+        return partial ? ResponseEntity.ok(body) : ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    /**
+     * Employee versions named by an {@code If-Match} header, or null when there is no precondition
+     * ({@code *} or no header; a missing resource is a 404 anyway). Weak or foreign tags never
+     * match, so a header made only of those yields an empty set and the update fails with 412.
+     * The department part of a tag is ignored: the precondition guards the employee row only.
+     */
+    static Set<Long> ifMatch(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) return null;
+        Set<Long> versions = new HashSet<>();
+        for (String tag : header.split(",")) {
+            String t = tag.trim();
+            if (t.length() > 3 && t.startsWith("\"v") && t.endsWith("\"")) {
+                int end = t.indexOf('-');
+                try {
+                    versions.add(Long.parseLong(t.substring(2, end < 0 ? t.length() - 1 : end)));
+                } catch (NumberFormatException ignored) {
+                    // not one of ours
+                }
+            }
+        }
+        return versions;
+    }
+}
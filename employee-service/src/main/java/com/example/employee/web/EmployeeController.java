@@ -1,17 +1,23 @@
 package com.example.employee.web;
 
 import com.example.employee.dto.*;
+import com.example.employee.service.EmployeeImportService;
 import com.example.employee.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 @Tag(name = "Employees")
@@ -21,21 +27,32 @@ import java.util.*;
 public class EmployeeController {
 
     private final EmployeeService service;
+    private final EmployeeImportService importService;
+    private final ObjectMapper objectMapper;
 
-    // GET /employees — pagination/sort/filters
+    // GET /employees — pagination/sort/filters; If-None-Match → 304 when no row on the page changed
     @Operation(summary = "List employees with pagination, sorting and filters")
     @GetMapping
-    public PageResponse<EmployeeDTO> all(
+    public ResponseEntity<PageResponse<EmployeeDTO>> all(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "lastName,asc") String sort,
             @RequestParam(required = false) String email,
             @RequestParam(required = false, name = "lastName") String lastNameContains,
-            @RequestParam(required = false) Long departmentId
+            @RequestParam(required = false) Long departmentId,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
         Sort sortObj = parseSort(sort);
+        if (ifNoneMatch != null) {
+            String current = service.listVersion(page, size, sortObj, email, lastNameContains, departmentId);
+            if (current != null && ETags.notModified(ifNoneMatch, ETags.ofPage(current))) {
+                return ETags.notModifiedResponse(ETags.ofPage(current));
+            }
+        }
         var result = service.list(page, size, sortObj, email, lastNameContains, departmentId);
-        return new PageResponse<>(
+        String etag = ETags.ofPage(EmployeeService.listVersion(result));
+        boolean partial = result.getContent().stream().anyMatch(e -> e.getPartial() != null);
+        return ETags.ok(new PageResponse<>(
                 result.getContent(),
                 result.getNumber(),
                 result.getSize(),
@@ -43,14 +60,65 @@ public class EmployeeController {
                 result.getTotalPages(),
                 result.isFirst(),
                 result.isLast()
-        );
+        ), etag, partial);
     }
 
-    // GET /employees/{id}
+    // GET /employees?cursor=... — keyset pagination (opt-in; pass an empty cursor for the first page)
+    @Operation(summary = "List employees with keyset (cursor) pagination; no total count")
+    @GetMapping(params = "cursor")
+    public CursorPage<EmployeeDTO> allByCursor(
+            @Parameter(description = "Opaque nextCursor from the previous page; empty for the first page")
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "lastName,asc") String sort,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false, name = "lastName") String lastNameContains,
+            @RequestParam(required = false) Long departmentId
+    ) {
+        return service.listByCursor(size, parseSort(sort), cursor, email, lastNameContains, departmentId);
+    }
+
+    // GET /employees/{id} — If-None-Match → 304 when neither the employee nor its department changed,
+    // checked from the row version and the (usually cached) department before anything is loaded
     @Operation(summary = "Get employee by id (enriched with department if available)")
     @GetMapping("/{id}")
-    public EmployeeDTO byId(@PathVariable Long id) {
-        return service.getById(id);
+    public ResponseEntity<EmployeeDTO> byId(@PathVariable Long id,
+                                            @Parameter(description = "false: skip the department lookup (department is null)")
+                                            @RequestParam(defaultValue = "true") boolean enrich,
+                                            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                            String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String current = service.representationVersionOf(id, enrich);
+            if (current != null && ETags.notModified(ifNoneMatch, ETags.ofVersion(current))) {
+                return ETags.notModifiedResponse(ETags.ofVersion(current));
+            }
+        }
+        EmployeeDTO dto = service.getById(id, enrich);
+        return ETags.ok(dto, ETags.of(dto), dto.getPartial() != null);
+    }
+
+    // GET /employees/exists?departmentId=... — indexed existence probe (used by protective department delete)
+    @Operation(summary = "Whether any employee references the department")
+    @GetMapping("/exists")
+    public Map<String, Boolean> exists(@RequestParam Long departmentId) {
+        return Map.of("exists", service.existsInDepartment(departmentId));
+    }
+
+    // HEAD /employees/exists?departmentId=... — 200 when referenced, 404 when not
+    @Operation(summary = "Existence probe without a body: 200 if any employee references the department, else 404")
+    @RequestMapping(value = "/exists", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> existsHead(@RequestParam Long departmentId) {
+        return service.existsInDepartment(departmentId)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    // GET /employees/by-email?email=...
+    @Operation(summary = "Get employee by email (enriched with department if available)")
+    @GetMapping("/by-email")
+    public ResponseEntity<EmployeeDTO> byEmail(@RequestParam String email) {
+        EmployeeDTO dto = service.getByEmail(email);
+        return ETags.ok(dto, ETags.of(dto), dto.getPartial() != null);
     }
 
     // POST /employees with optional Idempotency-Key
@@ -64,18 +132,24 @@ public class EmployeeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
-    // PUT /employees/{id}
+    // PUT /employees/{id} — optional If-Match (412 when the employee changed since that ETag)
     @Operation(summary = "Full update an employee")
     @PutMapping("/{id}")
-    public EmployeeDTO put(@PathVariable Long id, @Valid @RequestBody UpdateEmployeeRequest req) {
-        return service.put(id, req);
+    public ResponseEntity<EmployeeDTO> put(@PathVariable Long id,
+                                           @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @Valid @RequestBody UpdateEmployeeRequest req) {
+        EmployeeDTO dto = service.put(id, req, ETags.ifMatch(ifMatch));
+        return ETags.ok(dto, ETags.of(dto), dto.getPartial() != null);
     }
 
-    // PATCH /employees/{id}
+    // PATCH /employees/{id} — optional If-Match
     @Operation(summary = "Partial update an employee")
     @PatchMapping("/{id}")
-    public EmployeeDTO patch(@PathVariable Long id, @Valid @RequestBody PatchEmployeeRequest req) {
-        return service.patch(id, req);
+    public ResponseEntity<EmployeeDTO> patch(@PathVariable Long id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @Valid @RequestBody PatchEmployeeRequest req) {
+        EmployeeDTO dto = service.patch(id, req, ETags.ifMatch(ifMatch));
+        return ETags.ok(dto, ETags.of(dto), dto.getPartial() != null);
     }
 
     // DELETE /employees/{id}
@@ -87,7 +161,8 @@ public class EmployeeController {
     }
 
     // GET /employees/search?q=...
-    @Operation(summary = "Search employees by name/email (case-insensitive)")
+    @Operation(summary = "Search employees by name/email (prefix and fuzzy matching, best matches first; "
+            + "queries without 3 letters/digits in a row match nothing)")
     @GetMapping("/search")
     public List<EmployeeDTO> search(@RequestParam("q") String query) {
         return service.search(query);
@@ -100,6 +175,30 @@ public class EmployeeController {
         return service.stats();
     }
 
+    // GET /employees/export — streams the whole table; memory use does not grow with row count.
+    // No produces: ?format= picks the format whatever the Accept header says, Accept is only the fallback
+    @Operation(summary = "Export all employees as NDJSON or CSV (format=ndjson|csv, else the Accept header)")
+    @GetMapping("/export")
+    public void export(@RequestParam(required = false) String format,
+                       @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat fmt = ExportFormat.resolve(format, accept);
+        response.setContentType(fmt.contentType);
+        response.setCharacterEncoding("UTF-8");
+        service.export(fmt.open(response.getOutputStream(), objectMapper));
+    }
+
+    // POST /employees/import — streamed NDJSON/CSV body, loaded with COPY; no row cap
+    @Operation(summary = "Import employees from a streamed NDJSON or CSV body; returns a per-row error report")
+    @PostMapping(value = "/import", consumes = { "application/x-ndjson", "text/csv" })
+    public ImportReport importEmployees(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                        InputStream body) {
+        var format = contentType.startsWith("text/csv")
+                ? EmployeeImportService.Format.CSV
+                : EmployeeImportService.Format.NDJSON;
+        return importService.importEmployees(body, format);
+    }
+
     // POST /employees:bulkCreate
     @Operation(summary = "Bulk create employees (up to N)")
     @PostMapping("/bulkCreate")
@@ -111,19 +210,7 @@ public class EmployeeController {
         if (payload.size() > limit) {
             throw new IllegalArgumentException("Too many items; max=" + limit);
         }
-        List<Map<String, Object>> results = new ArrayList<>();
-        for (EmployeeDTO dto : payload) {
-            Map<String, Object> r = new HashMap<>();
-            try {
-                var created = service.create(dto, null);
-                r.put("status", "CREATED");
-                r.put("employee", created);
-            } catch (Exception ex) {
-                r.put("status", "ERROR");
-                r.put("error", ex.getMessage());
-            }
-            results.add(r);
-        }
+        List<BulkCreateResult> results = service.bulkCreate(payload);
         Map<String, Object> body = Map.of(
                 "count", results.size(),
                 "results", results
@@ -131,7 +218,7 @@ public class EmployeeController {
         return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(body);
     }
 
-    private Sort parseSort(String sort) {
+    static Sort parseSort(String sort) {
         // format: field,asc|desc[;field2,asc]
         String[] parts = sort.split("[;]");
         List<Sort.Order> orders = new ArrayList<>();
@@ -5,6 +5,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.MDC;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.validation.BindException;
@@ -72,7 +73,17 @@ public class ErrorHandling {
         return pd;
     }
 
-    @ExceptionHandler({ IllegalArgumentException.class, DuplicateResourceException.class })
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ProblemDetail handlePreconditionFailed(PreconditionFailedException ex, HttpServletRequest req) {
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+        applyCommon(pd, req, URI.create("about:blank/precondition-failed"), "Precondition Failed");
+        return pd;
+    }
+
+    // OptimisticLockingFailureException: a concurrent update won the race between our read and our write
+    @ExceptionHandler({ IllegalArgumentException.class, DuplicateResourceException.class,
+                        OptimisticLockingFailureException.class })
     @ResponseStatus(HttpStatus.CONFLICT)
     public ProblemDetail handleBusiness(RuntimeException ex, HttpServletRequest req) {
         ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
@@ -105,4 +116,8 @@ public class ErrorHandling {
     public static class DuplicateResourceException extends RuntimeException {
         public DuplicateResourceException(String message) { super(message); }
     }
+
+    public static class PreconditionFailedException extends RuntimeException {
+        public PreconditionFailedException(String message) { super(message); }
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.employee.web;
+
+import com.example.employee.dto.EmployeeDTO;
+import com.example.employee.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/** Wire formats of {@code GET /employees/export}; each writes rows straight to the response stream. */
+enum ExportFormat {
+
+    NDJSON("application/x-ndjson") {
+        @Override
+        EmployeeService.ExportSink open(OutputStream out, ObjectMapper mapper) throws IOException {
+            JsonGenerator gen = mapper.getFactory().createGenerator(out);
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // no root-value separator: Jackson would otherwise start every line after the first with a space
+            ObjectWriter writer = mapper.writerFor(EmployeeDTO.class).withRootValueSeparator("");
+            return chunk -> {
+                for (EmployeeDTO dto : chunk) {
+                    writer.writeValue(gen, dto);
+                    gen.writeRaw('\n');
+                }
+                gen.flush();
+            };
+        }
+    },
+
+    CSV("text/csv") {
+        @Override
+        EmployeeService.ExportSink open(OutputStream out, ObjectMapper mapper) throws IOException {
+            Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            w.write("id,firstName,lastName,email,departmentId,departmentName\n");
+            w.flush();
+            return chunk -> {
+                for (EmployeeDTO dto : chunk) {
+                    w.write(String.valueOf(dto.getId()));
+                    w.write(',');
+                    w.write(escape(dto.getFirstName()));
+                    w.write(',');
+                    w.write(escape(dto.getLastName()));
+                    w.write(',');
+                    w.write(escape(dto.getEmail()));
+                    w.write(',');
+                    w.write(dto.getDepartmentId() == null ? "" : dto.getDepartmentId().toString());
+                    w.write(',');
+                    w.write(escape(dto.getDepartment() == null ? null : dto.getDepartment().getName()));
+                    w.write('\n');
+                }
+                w.flush();
+            };
+        }
+    };
+
+    final String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    abstract EmployeeService.ExportSink open(OutputStream out, ObjectMapper mapper) throws IOException;
+
+    // ?format= wins; otherwise the Accept header decides, NDJSON by default
+    static ExportFormat resolve(String format, String accept) {
+        if (format != null) {
+            return "csv".equalsIgnoreCase(format) ? CSV : NDJSON;
+        }
+        return accept != null && accept.contains(CSV.contentType) ? CSV : NDJSON;
+    }
+
+    private static String escape(String v) {
+        if (v == null) return "";
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0) return v;
+        return '"' + v.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,3 @@
+-- Optimistic-lock version; also the source of strong ETags for conditional GET/PUT/PATCH.
+-- Existing rows (and rows written by set-based SQL such as the COPY import) start at 0.
+ALTER TABLE employee.employees ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
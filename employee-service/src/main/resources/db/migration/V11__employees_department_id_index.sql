@@ -0,0 +1,2 @@
+-- Backs GET/HEAD /employees/exists?departmentId= (protective department delete) and the departmentId list filter
+CREATE INDEX IF NOT EXISTS idx_employees_department_id ON employee.employees (department_id);
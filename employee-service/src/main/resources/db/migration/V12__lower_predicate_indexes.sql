@@ -0,0 +1,9 @@
+-- Expression indexes matching the list filters in EmployeeSpecifications, so each predicate has an index:
+--   emailEquals        lower(email) = ?          -> idx_employees_email_lower (btree)
+--   lastNameContains   lower(last_name) LIKE ?   -> idx_employees_last_name_trgm (pg_trgm from V5)
+--   departmentIdEquals department_id = ?         -> idx_employees_department_id (V11)
+--   after (keyset)     (sort key, id) > cursor   -> idx_employees_*_name_id (V4) and the primary key
+CREATE INDEX IF NOT EXISTS idx_employees_email_lower ON employee.employees (lower(email));
+
+CREATE INDEX IF NOT EXISTS idx_employees_last_name_trgm
+    ON employee.employees USING gin (lower(last_name) public.gin_trgm_ops);
@@ -0,0 +1,3 @@
+-- (sort key, id) indexes so keyset pages seek straight to the cursor instead of scanning an OFFSET
+CREATE INDEX IF NOT EXISTS idx_employees_last_name_id  ON employee.employees (last_name, id);
+CREATE INDEX IF NOT EXISTS idx_employees_first_name_id ON employee.employees (first_name, id);
@@ -0,0 +1,9 @@
+-- Trigram indexes for /employees/search: serve '%q%' substring and word-similarity (fuzzy) matches
+-- without a sequential scan. The extension lives in public so the operators resolve on any search_path.
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+
+CREATE INDEX IF NOT EXISTS idx_employees_full_name_trgm
+    ON employee.employees USING gin (lower(first_name || ' ' || last_name) public.gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_employees_email_trgm
+    ON employee.employees USING gin (lower(email) public.gin_trgm_ops);
@@ -0,0 +1,13 @@
+-- Landing table for POST /employees/import: rows are COPY'd here, checked for email conflicts,
+-- then merged into employee.employees. Unlogged because its content never outlives one import.
+CREATE UNLOGGED TABLE IF NOT EXISTS employee.employee_import_staging (
+    import_id     UUID         NOT NULL,
+    line_no       BIGINT       NOT NULL,
+    first_name    VARCHAR(120) NOT NULL,
+    last_name     VARCHAR(120) NOT NULL,
+    email         VARCHAR(200) NOT NULL,
+    department_id BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_employee_import_staging_import_email
+    ON employee.employee_import_staging (import_id, email);
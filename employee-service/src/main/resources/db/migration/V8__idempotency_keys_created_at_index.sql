@@ -0,0 +1,2 @@
+-- Lets the idempotency sweeper find expired keys (created_at < cutoff, oldest first) without a full scan
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON employee.idempotency_keys (created_at);
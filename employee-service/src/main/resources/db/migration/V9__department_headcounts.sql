@@ -0,0 +1,15 @@
+-- Incrementally maintained headcounts for /employees/stats. Each department is spread over a few
+-- slots so concurrent writers to the same department rarely contend on one row; readers SUM the slots.
+-- NULLS NOT DISTINCT (PostgreSQL 15+) lets employees without a department share one counter.
+CREATE TABLE IF NOT EXISTS employee.department_headcounts (
+    department_id BIGINT,
+    slot          SMALLINT NOT NULL,
+    headcount     BIGINT   NOT NULL DEFAULT 0,
+    CONSTRAINT uk_department_headcounts_dept_slot UNIQUE NULLS NOT DISTINCT (department_id, slot)
+);
+
+INSERT INTO employee.department_headcounts (department_id, slot, headcount)
+SELECT department_id, 0, COUNT(*)
+FROM employee.employees
+GROUP BY department_id
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,92 @@
+package com.example.employee.search;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.repo.EmployeeRepository;
+import com.example.employee.repo.EmployeeView;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the same queries through {@link PostgresEmployeeSearchEngine} (pg_trgm on an embedded PostgreSQL 16)
+ * and {@link InMemoryEmployeeSearchEngine} over the same rows, and expects the same employees in the same
+ * order. The names are chosen so that substring, prefix and fuzzy matches compete for the top places.
+ */
+class EmployeeSearchEngineParityTest {
+
+    private static final String[] FIRST = {"John", "Jon", "Joan", "Anna", "Ana", "Hannah", "Martin", "Martina",
+            "Maria", "Mario", "Alice", "Alicia", "Bob", "Robert", "Carla", "Carlos"};
+    private static final String[] LAST = {"Smith", "Smyth", "Smithson", "Garcia", "Garza", "Martinez", "Martins",
+            "Nguyen", "Singh", "O'Brien", "Johnson", "Jonas", "Anderson", "Sanders"};
+    private static final String[] DOMAIN = {"example.com", "acme.org", "mail.example.net"};
+
+    private static EmbeddedPostgres pg;
+    private static PostgresEmployeeSearchEngine postgres;
+    private static InMemoryEmployeeSearchEngine memory;
+
+    @BeforeAll
+    static void seed() throws IOException {
+        pg = EmbeddedPostgres.builder().start();
+        // the source tree's scripts: department-service on the test classpath has a db/migration of its own
+        Flyway.configure().dataSource(pg.getPostgresDatabase()).schemas("employee")
+                .locations("filesystem:src/main/resources/db/migration").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(pg.getPostgresDatabase());
+        int n = 0;
+        for (String first : FIRST) {
+            for (String last : LAST) {
+                String domain = DOMAIN[n++ % DOMAIN.length];
+                String email = (first.charAt(0) + "." + last).toLowerCase().replace("'", "") + n + "@" + domain;
+                jdbc.update("INSERT INTO employee.employees (first_name, last_name, email, department_id) "
+                        + "VALUES (?, ?, ?, ?)", first, last, email, (long) n % 5);
+            }
+        }
+
+        postgres = new PostgresEmployeeSearchEngine(new NamedParameterJdbcTemplate(jdbc));
+        List<Employee> rows = jdbc.query("SELECT * FROM employee.employees", (rs, i) -> new Employee(
+                rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"), rs.getString("email"),
+                rs.getObject("department_id", Long.class), rs.getLong("version")));
+        EmployeeRepository repository = mock(EmployeeRepository.class);
+        when(repository.findAll()).thenReturn(rows);
+        memory = new InMemoryEmployeeSearchEngine(repository);
+        memory.reindex();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        pg.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"smith", "smyth", "Smithson", "jon", "john", "john smith", "jon smyth", "mart",
+            "martinez", "ana", "hannah", "anna sanders", "garcia", "garzia", "son", "obrien", "o'brien",
+            "alice", "ALI", "alicia nguyen", "acme", "example.com", "j.smith", "m.martins", "carlos singh",
+            "rob", "zzz", "  bob  ", "100%", "car_la"})
+    void bothEnginesReturnTheSameRanking(String query) {
+        List<EmployeeView> expected = postgres.search(query, 50);
+
+        assertThat(memory.search(query, 50)).as("memory engine for '%s'", query).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"smith", "mart", "son"})
+    void limitCutsTheSameRanking(String query) {
+        List<EmployeeView> all = new ArrayList<>(postgres.search(query, 1000));
+
+        assertThat(all).hasSizeGreaterThan(5);
+        assertThat(postgres.search(query, 5)).isEqualTo(all.subList(0, 5));
+        assertThat(memory.search(query, 5)).isEqualTo(all.subList(0, 5));
+    }
+}
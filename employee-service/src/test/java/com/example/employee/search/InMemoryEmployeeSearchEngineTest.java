@@ -0,0 +1,96 @@
+package com.example.employee.search;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.repo.EmployeeRepository;
+import com.example.employee.repo.EmployeeView;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The write hooks apply only once the surrounding transaction commits.
+ */
+class InMemoryEmployeeSearchEngineTest {
+
+    private final InMemoryEmployeeSearchEngine engine = new InMemoryEmployeeSearchEngine(mock(EmployeeRepository.class));
+    private final TransactionTemplate tx = new TransactionTemplate(new NoOpTransactionManager());
+
+    @Test
+    void rolledBackCreateIsNotSearchable() {
+        tx.executeWithoutResult(status -> {
+            engine.indexed(employee(1L, "Grace", 0L));
+            assertThat(engine.search("grace", 10)).as("visible before commit").isEmpty();
+            status.setRollbackOnly();
+        });
+
+        assertThat(engine.search("grace", 10)).isEmpty();
+    }
+
+    @Test
+    void committedCreateIsSearchable() {
+        tx.executeWithoutResult(status -> engine.indexed(employee(1L, "Grace", 0L)));
+
+        assertThat(engine.search("grace", 10)).extracting(EmployeeView::id).containsExactly(1L);
+    }
+
+    @Test
+    void rolledBackUpdateKeepsTheCommittedName() {
+        engine.indexed(employee(1L, "Grace", 0L));
+
+        tx.executeWithoutResult(status -> {
+            engine.indexed(employee(1L, "Ada", 1L));
+            status.setRollbackOnly();
+        });
+
+        assertThat(engine.search("grace", 10)).extracting(EmployeeView::id).containsExactly(1L);
+        assertThat(engine.search("ada", 10)).isEmpty();
+    }
+
+    @Test
+    void rolledBackDeleteKeepsTheEmployee() {
+        engine.indexed(employee(1L, "Grace", 0L));
+
+        tx.executeWithoutResult(status -> {
+            engine.removed(1L);
+            status.setRollbackOnly();
+        });
+
+        assertThat(engine.search("grace", 10)).extracting(EmployeeView::id).containsExactly(1L);
+    }
+
+    @Test
+    void olderVersionNeverReplacesANewerOne() {
+        engine.indexed(employee(1L, "Ada", 2L));
+        engine.indexed(employee(1L, "Grace", 1L));
+
+        assertThat(engine.search("ada", 10)).extracting(EmployeeView::version).containsExactly(2L);
+        assertThat(engine.search("grace", 10)).isEmpty();
+    }
+
+    private static Employee employee(Long id, String firstName, Long version) {
+        return new Employee(id, firstName, "Hopper", firstName.toLowerCase() + "@example.com", 1L, version);
+    }
+
+    // just enough of a transaction manager to run synchronizations on commit and rollback
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) { }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) { }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) { }
+    }
+}
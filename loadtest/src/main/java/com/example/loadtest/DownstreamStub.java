@@ -0,0 +1,108 @@
+package com.example.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-process HTTP stand-in for a downstream service. Every request waits {@code latency} and then fails
+ * with probability {@code failureRate}, in the configured {@link FailureMode}; otherwise the first route
+ * whose prefix matches the path answers with JSON. Settings can be changed while the load test runs.
+ */
+final class DownstreamStub implements AutoCloseable {
+
+    enum FailureMode {
+        /** answer 503 */
+        STATUS,
+        /** drop the connection without a response, which the client sees as an I/O error */
+        RESET
+    }
+
+    private final String name;
+    private final HttpServer server;
+    private final Map<String, Function<URI, String>> routes = new LinkedHashMap<>();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double failureRate;
+    private volatile FailureMode failureMode = FailureMode.RESET;
+
+    final LongAdder requests = new LongAdder();
+    final LongAdder failures = new LongAdder();
+
+    DownstreamStub(String name) throws IOException {
+        this.name = name;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/", this::handle);
+    }
+
+    DownstreamStub route(String pathPrefix, Function<URI, String> json) {
+        routes.put(pathPrefix, json);
+        return this;
+    }
+
+    DownstreamStub start() {
+        server.start();
+        return this;
+    }
+
+    void behave(Duration latency, double failureRate, FailureMode failureMode) {
+        this.latency = latency;
+        this.failureRate = failureRate;
+        this.failureMode = failureMode;
+    }
+
+    String name() {
+        return name;
+    }
+
+    String uri() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try (exchange) {
+            if (!latency.isZero()) Thread.sleep(latency);
+            if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                failures.increment();
+                if (failureMode == FailureMode.STATUS) {
+                    exchange.sendResponseHeaders(503, -1);
+                }
+                return;   // RESET: closing without headers aborts the exchange
+            }
+            URI uri = exchange.getRequestURI();
+            Function<URI, String> route = routes.entrySet().stream()
+                    .filter(r -> uri.getPath().startsWith(r.getKey()))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(null);
+            if (route == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body = route.apply(uri).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
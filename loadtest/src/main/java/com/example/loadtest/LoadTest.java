@@ -0,0 +1,335 @@
+package com.example.loadtest;
+
+import com.example.department.DepartmentServiceApplication;
+import com.example.employee.EmployeeServiceApplication;
+import com.example.employee.search.EmployeeSearchEngine;
+import com.example.employee.service.DepartmentHeadcounts;
+import com.example.loadtest.DownstreamStub.FailureMode;
+import com.example.loadtest.ServiceLauncher.Database;
+import com.example.loadtest.Workload.Operation;
+import com.example.loadtest.Workload.Outcome;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end load test of employee-service and department-service without the docker-compose stack.
+ * <p>
+ * Both services run in this JVM on random ports against an embedded PostgreSQL 16 (or {@code -Dloadtest.jdbc.url}),
+ * each with its Feign client pointed at an in-process {@link DownstreamStub}. A fixed number of closed-loop
+ * clients drive the {@link Workload} mix through four phases: warmup, steady, outage (the stubs fail, so the
+ * circuit breakers trip) and recovery (the stubs heal; breakers go half-open and close again). Per phase and
+ * operation it reports throughput and HDR latency percentiles; a per-second timeline shows the breaker states.
+ * <p>
+ * Options ({@code -D}, durations like {@code 30s}): {@code loadtest.concurrency}, {@code loadtest.warmup},
+ * {@code loadtest.steady}, {@code loadtest.outage}, {@code loadtest.recovery}, {@code loadtest.stub.latency},
+ * {@code loadtest.outage.failure-rate}, {@code loadtest.outage.mode} (reset|status), {@code loadtest.mix},
+ * {@code loadtest.virtual-threads} (services on virtual threads), {@code loadtest.department-cache-ttl},
+ * {@code loadtest.report-dir}, {@code loadtest.jdbc.url/user/password}.
+ */
+public final class LoadTest {
+
+    record Phase(String name, Duration duration, double failureRate) {}
+
+    /**
+     * What one phase measured: HDR latencies (µs) and outcome counts per operation. A request is accounted to
+     * the phase it started in; {@link #drain()} moves recorded latencies into the phase totals.
+     */
+    static final class PhaseResult {
+        final Phase phase;
+        final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        final Map<Operation, LongAdder[]> outcomes = new EnumMap<>(Operation.class);
+        long elapsedMillis;
+
+        PhaseResult(Phase phase) {
+            this.phase = phase;
+            for (Operation op : Operation.values()) {
+                recorders.put(op, new Recorder(3));
+                latencies.put(op, new Histogram(3));
+                outcomes.put(op, Stream.generate(LongAdder::new).limit(Outcome.values().length).toArray(LongAdder[]::new));
+            }
+        }
+
+        void record(Operation op, Outcome outcome, long micros) {
+            recorders.get(op).recordValue(Math.max(1, micros));
+            outcomes.get(op)[outcome.ordinal()].increment();
+        }
+
+        /** Latencies recorded since the last call, also added to the phase totals. */
+        Histogram drain() {
+            Histogram interval = new Histogram(3);
+            for (Operation op : Operation.values()) {
+                Histogram h = recorders.get(op).getIntervalHistogram();
+                latencies.get(op).add(h);
+                interval.add(h);
+            }
+            return interval;
+        }
+
+        long count(Outcome outcome) {
+            return outcomes.values().stream().mapToLong(o -> o[outcome.ordinal()].sum()).sum();
+        }
+    }
+
+    private volatile PhaseResult current;
+    private volatile boolean running = true;
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run();
+        System.exit(0);   // the embedded services keep non-daemon threads
+    }
+
+    private void run() throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        Duration stubLatency = duration("loadtest.stub.latency", "5ms");
+        double outageFailureRate = Double.parseDouble(System.getProperty("loadtest.outage.failure-rate", "1.0"));
+        FailureMode outageMode = FailureMode.valueOf(
+                System.getProperty("loadtest.outage.mode", "reset").toUpperCase(Locale.ROOT));
+        String virtualThreads = System.getProperty("loadtest.virtual-threads", "false");
+        Path reportDir = Path.of(System.getProperty("loadtest.report-dir", "target/loadtest"));
+        List<Phase> phases = List.of(
+                new Phase("warmup", duration("loadtest.warmup", "10s"), 0),
+                new Phase("steady", duration("loadtest.steady", "30s"), 0),
+                new Phase("outage", duration("loadtest.outage", "20s"), outageFailureRate),
+                new Phase("recovery", duration("loadtest.recovery", "40s"), 0));
+
+        try (Closeables resources = new Closeables()) {
+            Database db = database(resources);
+            DownstreamStub departmentStub = resources.add(new DownstreamStub("DEPARTMENT-SERVICE")
+                    .route("/api/v1/departments/batch", LoadTest::departmentsJson)
+                    .route("/api/v1/departments/", LoadTest::departmentJson)
+                    .start());
+            DownstreamStub employeeStub = resources.add(new DownstreamStub("EMPLOYEE-SERVICE")
+                    .route("/api/v1/employees/exists", uri -> "{\"exists\":true}")
+                    .route("/api/v1/employees", LoadTest::employeePageJson)
+                    .start());
+            List<DownstreamStub> stubs = List.of(departmentStub, employeeStub);
+
+            ConfigurableApplicationContext employees = resources.add(ServiceLauncher.boot(
+                    EmployeeServiceApplication.class, "employee-service", db, "DEPARTMENT-SERVICE", departmentStub,
+                    Map.of("threads.virtual.enabled", virtualThreads,
+                            "departments.cache.ttl", System.getProperty("loadtest.department-cache-ttl", "1s"))));
+            ConfigurableApplicationContext departments = resources.add(ServiceLauncher.boot(
+                    DepartmentServiceApplication.class, "department-service", db, "EMPLOYEE-SERVICE", employeeStub,
+                    Map.of("threads.virtual.enabled", virtualThreads)));
+            List<ConfigurableApplicationContext> services = List.of(employees, departments);
+
+            Workload workload = new Workload(ServiceLauncher.baseUri(employees), ServiceLauncher.baseUri(departments),
+                    seedEmployees(employees), seedDepartments(departments),
+                    System.getProperty("loadtest.mix", Workload.DEFAULT_MIX));
+            System.out.printf("load test: %d clients, services on %s threads, mix %s%n", concurrency,
+                    Boolean.parseBoolean(virtualThreads) ? "virtual" : "platform",
+                    System.getProperty("loadtest.mix", Workload.DEFAULT_MIX));
+
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            List<PhaseResult> results = new ArrayList<>();
+            List<String> timeline = new ArrayList<>();
+            timeline.add("second,phase,ops_per_sec,phase_errors,phase_degraded,p99_ms,breakers");
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                current = new PhaseResult(phases.get(0));
+                for (int i = 0; i < concurrency; i++) clients.submit(() -> drive(http, workload));
+
+                int second = 0;
+                for (Phase phase : phases) {
+                    PhaseResult result = phase == current.phase ? current : new PhaseResult(phase);
+                    current = result;
+                    results.add(result);
+                    stubs.forEach(s -> s.behave(stubLatency, phase.failureRate(), outageMode));
+                    long start = System.currentTimeMillis();
+                    for (long s = 0; s < Math.max(1, phase.duration().toSeconds()); s++) {
+                        Thread.sleep(1000);
+                        timeline.add(tick(++second, result, services));
+                    }
+                    result.elapsedMillis = System.currentTimeMillis() - start;
+                }
+                running = false;
+            }
+            results.forEach(PhaseResult::drain);   // requests still in flight at the phase switches
+            report(reportDir, results, timeline, stubs);
+        }
+    }
+
+    // Closed loop: each client sends its next request as soon as the previous one is answered
+    private void drive(HttpClient http, Workload workload) {
+        while (running) {
+            Operation op = workload.next();
+            PhaseResult phase = current;
+            HttpRequest request = workload.request(op);
+            long start = System.nanoTime();
+            Outcome outcome;
+            try {
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                outcome = Workload.classify(op, response.statusCode(), response.body());
+            } catch (IOException ex) {
+                outcome = Outcome.ERROR;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            phase.record(op, outcome, (System.nanoTime() - start) / 1000);
+        }
+    }
+
+    // Folds the last second into the phase totals and returns its timeline row
+    private String tick(int second, PhaseResult phase, List<ConfigurableApplicationContext> services) {
+        Histogram interval = phase.drain();
+        String breakers = services.stream()
+                .flatMap(ctx -> ctx.getBean(CircuitBreakerRegistry.class).getAllCircuitBreakers().stream()
+                        .map(cb -> ctx.getEnvironment().getProperty("spring.application.name") + "/"
+                                + cb.getName() + "=" + cb.getState()))
+                .sorted()
+                .collect(Collectors.joining(" "));
+        String row = String.format(Locale.ROOT, "%d,%s,%d,%d,%d,%.2f,%s", second, phase.phase.name(),
+                interval.getTotalCount(), phase.count(Outcome.ERROR), phase.count(Outcome.DEGRADED),
+                interval.getValueAtPercentile(99) / 1000.0, breakers);
+        System.out.println(row);
+        return row;
+    }
+
+    private static void report(Path dir, List<PhaseResult> results, List<String> timeline, List<DownstreamStub> stubs)
+            throws IOException {
+        Files.createDirectories(dir);
+        StringBuilder summary = new StringBuilder();
+        for (PhaseResult r : results) {
+            summary.append(String.format(Locale.ROOT, "%n== %s (%ds, stub failure rate %.2f)%n", r.phase.name(),
+                    r.elapsedMillis / 1000, r.phase.failureRate()));
+            summary.append(String.format("%-12s %8s %8s %8s %8s %9s %9s %9s %9s %9s %9s%n", "operation", "count",
+                    "ok", "degraded", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+            Histogram all = new Histogram(3);
+            for (Operation op : Operation.values()) {
+                Histogram h = r.latencies.get(op);
+                all.add(h);
+                LongAdder[] o = r.outcomes.get(op);
+                summary.append(row(op.name().toLowerCase(Locale.ROOT), h, o[Outcome.OK.ordinal()].sum(),
+                        o[Outcome.DEGRADED.ordinal()].sum(), o[Outcome.ERROR.ordinal()].sum(), r.elapsedMillis));
+                try (PrintStream out = new PrintStream(Files.newOutputStream(
+                        dir.resolve(r.phase.name() + "-" + op.name().toLowerCase(Locale.ROOT) + ".hgrm")))) {
+                    h.outputPercentileDistribution(out, 1000.0);   // values in ms
+                }
+            }
+            summary.append(row("all", all, r.count(Outcome.OK), r.count(Outcome.DEGRADED), r.count(Outcome.ERROR),
+                    r.elapsedMillis));
+        }
+        summary.append(System.lineSeparator());
+        stubs.forEach(s -> summary.append(String.format("stub %s: %d requests, %d injected failures%n",
+                s.name(), s.requests.sum(), s.failures.sum())));
+
+        Files.writeString(dir.resolve("summary.txt"), summary);
+        Files.write(dir.resolve("timeline.csv"), timeline);
+        System.out.print(summary);
+        System.out.println("Reports written to " + dir.toAbsolutePath());
+    }
+
+    private static String row(String name, Histogram h, long ok, long degraded, long errors, long elapsedMillis) {
+        return String.format(Locale.ROOT, "%-12s %8d %8d %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                h.getTotalCount(), ok, degraded, errors, h.getTotalCount() * 1000.0 / Math.max(1, elapsedMillis),
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(90) / 1000.0,
+                h.getValueAtPercentile(99) / 1000.0, h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0);
+    }
+
+    private static Database database(Closeables resources) throws IOException {
+        String url = System.getProperty("loadtest.jdbc.url");
+        if (url != null) {
+            return new Database(url, System.getProperty("loadtest.jdbc.user", "postgres"),
+                    System.getProperty("loadtest.jdbc.password", "123456!"));
+        }
+        EmbeddedPostgres pg = resources.add(EmbeddedPostgres.builder().start());
+        return new Database(pg.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true", "postgres", "");
+    }
+
+    private static List<Long> seedEmployees(ConfigurableApplicationContext ctx) {
+        JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+        jdbc.update("""
+                INSERT INTO employee.employees (first_name, last_name, email, department_id)
+                SELECT 'Load', 'Seed ' || g, 'seed.' || g || '@example.com', (g % 50) + 1
+                FROM generate_series(1, 5000) g
+                ON CONFLICT (email) DO NOTHING
+                """);
+        ctx.getBean(DepartmentHeadcounts.class).reconcile();
+        ctx.getBean(EmployeeSearchEngine.class).reindex();
+        return jdbc.queryForList("SELECT id FROM employee.employees ORDER BY id LIMIT 5000", Long.class);
+    }
+
+    private static List<Long> seedDepartments(ConfigurableApplicationContext ctx) {
+        JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+        jdbc.update("""
+                INSERT INTO department.departments (name, code)
+                SELECT 'Load department ' || g, 'load-' || g
+                FROM generate_series(1, 50) g
+                ON CONFLICT (code) DO NOTHING
+                """);
+        return jdbc.queryForList("SELECT id FROM department.departments ORDER BY id", Long.class);
+    }
+
+    // ---- stub payloads ----
+
+    private static String departmentJson(URI uri) {
+        String path = uri.getPath();
+        return department(Long.parseLong(path.substring(path.lastIndexOf('/') + 1)));
+    }
+
+    // Feign sends ids=1&ids=2; a comma-separated list is accepted too
+    private static String departmentsJson(URI uri) {
+        String query = Objects.requireNonNullElse(uri.getRawQuery(), "");
+        return Arrays.stream(query.split("&"))
+                .filter(p -> p.startsWith("ids="))
+                .flatMap(p -> Stream.of(p.substring(4).split("%2C|,")))
+                .filter(s -> !s.isBlank())
+                .map(s -> department(Long.parseLong(s)))
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static String department(long id) {
+        return "{\"id\":" + id + ",\"name\":\"Department " + id + "\",\"description\":\"stub\"}";
+    }
+
+    private static String employeePageJson(URI uri) {
+        StringJoiner content = new StringJoiner(",", "[", "]");
+        for (int i = 1; i <= 20; i++) {
+            content.add("{\"id\":" + i + ",\"firstName\":\"Stub\",\"lastName\":\"Employee " + i
+                    + "\",\"email\":\"stub." + i + "@example.com\",\"departmentId\":1}");
+        }
+        return "{\"content\":" + content + ",\"page\":0,\"size\":20,\"totalElements\":20,\"totalPages\":1,"
+                + "\"first\":true,\"last\":true}";
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+
+    /** Closes what was opened, last first. */
+    private static final class Closeables implements AutoCloseable {
+        private final Deque<AutoCloseable> opened = new ArrayDeque<>();
+
+        <T extends AutoCloseable> T add(T resource) {
+            opened.push(resource);
+            return resource;
+        }
+
+        @Override
+        public void close() throws Exception {
+            while (!opened.isEmpty()) opened.pop().close();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.loadtest;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots one service on a random port, configured from {@code config-repo}, without config server or Eureka.
+ * Its downstream is resolved through Spring Cloud's simple discovery client, pointed at a {@link DownstreamStub}.
+ * <p>
+ * Both service jars are on this module's classpath, so their {@code application.yml} and {@code db/migration}
+ * resources shadow each other; config files and Flyway scripts are read from the source tree instead.
+ * Run from the {@code loadtest} directory (Maven does).
+ */
+final class ServiceLauncher {
+    private ServiceLauncher() {}
+
+    record Database(String url, String username, String password) {}
+
+    static ConfigurableApplicationContext boot(Class<?> application, String service, Database db,
+                                               String downstreamId, DownstreamStub downstream,
+                                               Map<String, String> extra) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.config.location=optional:file:../config-repo/application.yml,"
+                        + "optional:file:../config-repo/" + service + ".yml",
+                "--spring.cloud.config.enabled=false",
+                "--spring.cloud.config.import-check.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.cloud.discovery.client.simple.instances[" + downstreamId + "][0].uri=" + downstream.uri(),
+                "--server.port=0",
+                "--spring.flyway.locations=filesystem:../" + service + "/src/main/resources/db/migration",
+                "--spring.datasource.url=" + db.url(),
+                "--spring.datasource.username=" + db.username(),
+                "--spring.datasource.password=" + db.password(),
+                "--logging.level.root=WARN"));
+        extra.forEach((k, v) -> args.add("--" + k + "=" + v));
+        // command-line arguments, so they win over the config-repo files
+        return new SpringApplicationBuilder(application).run(args.toArray(String[]::new));
+    }
+
+    static String baseUri(ConfigurableApplicationContext context) {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
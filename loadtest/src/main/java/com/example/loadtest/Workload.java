@@ -0,0 +1,119 @@
+package com.example.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Weighted mix of requests against the two services: reads, search, writes, bulk writes, department reads,
+ * the department composition endpoint and protective deletes. Employee reads go through department enrichment,
+ * i.e. through the DEPARTMENT-SERVICE stub; composition and the delete probe reach the EMPLOYEE-SERVICE stub.
+ */
+final class Workload {
+
+    enum Operation { LIST, GET, SEARCH, CREATE, PATCH, BULK, DEPARTMENT, COMPOSITION, PROBE }
+
+    enum Outcome { OK, DEGRADED, ERROR }
+
+    static final String DEFAULT_MIX =
+            "list=30,get=25,search=15,create=8,patch=6,bulk=2,department=6,composition=5,probe=3";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String[] SEARCH_TERMS = { "load", "test", "smith", "employee", "ann" };
+
+    private final String employees;
+    private final String departments;
+    private final List<Long> employeeIds;
+    private final List<Long> departmentIds;
+    private final Operation[] wheel;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    Workload(String employeeService, String departmentService, List<Long> employeeIds, List<Long> departmentIds,
+             String mix) {
+        this.employees = employeeService + "/api/v1/employees";
+        this.departments = departmentService + "/api/v1/departments";
+        this.employeeIds = employeeIds;
+        this.departmentIds = departmentIds;
+        this.wheel = wheel(mix);
+    }
+
+    // one slot per unit of weight, so picking an operation is a single random index
+    private static Operation[] wheel(String mix) {
+        List<Operation> slots = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.split("=", 2);
+            Operation op = Operation.valueOf(kv[0].trim().toUpperCase(Locale.ROOT));
+            for (int i = Integer.parseInt(kv[1].trim()); i > 0; i--) slots.add(op);
+        }
+        if (slots.isEmpty()) throw new IllegalArgumentException("Empty workload mix: " + mix);
+        return slots.toArray(Operation[]::new);
+    }
+
+    Operation next() {
+        return wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+    }
+
+    HttpRequest request(Operation op) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (op) {
+            case LIST -> get(employees + "?page=" + random.nextInt(20) + "&size=20");
+            case GET -> get(employees + "/" + pick(employeeIds));
+            case SEARCH -> get(employees + "/search?q=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]);
+            case CREATE -> json(employees, "POST", employee(sequence.incrementAndGet()));
+            case PATCH -> json(employees + "/" + pick(employeeIds), "PATCH",
+                    "{\"lastName\":\"Patched " + random.nextInt(1000) + "\"}");
+            case BULK -> {
+                StringBuilder body = new StringBuilder("[");
+                for (int i = 0; i < 50; i++) {
+                    if (i > 0) body.append(',');
+                    body.append(employee(sequence.incrementAndGet()));
+                }
+                yield json(employees + "/bulkCreate", "POST", body.append(']').toString());
+            }
+            case DEPARTMENT -> get(departments + "/" + pick(departmentIds));
+            case COMPOSITION -> get(departments + "/" + pick(departmentIds) + "/employees?page=0&size=20");
+            // the stub always reports the department as in use, so the delete is refused and the data stays
+            case PROBE -> HttpRequest.newBuilder(URI.create(departments + "/" + pick(departmentIds)))
+                    .timeout(TIMEOUT).DELETE().build();
+        };
+    }
+
+    /**
+     * DEGRADED marks answers served from a fallback: partial enrichment, the composition fallback page,
+     * or a protective delete refused because employee usage could not be verified.
+     */
+    static Outcome classify(Operation op, int status, String body) {
+        if (op == Operation.PROBE && status == 409) {
+            return body.contains("Cannot verify") ? Outcome.DEGRADED : Outcome.OK;
+        }
+        if (status >= 300) return Outcome.ERROR;
+        return body.contains("\"partial\":true") || body.contains("\"downstream\":") ? Outcome.DEGRADED : Outcome.OK;
+    }
+
+    private String employee(long n) {
+        return "{\"firstName\":\"Load\",\"lastName\":\"Test " + n + "\",\"email\":\"load." + runId + "." + n
+                + "@example.com\",\"departmentId\":" + pick(departmentIds) + "}";
+    }
+
+    private static Long pick(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(TIMEOUT).GET().build();
+    }
+
+    private static HttpRequest json(String uri, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}